@@ -0,0 +1,116 @@
+package software.amazon.opsworkscm.server;
+
+import software.amazon.opsworkscm.server.utils.Sleeper;
+import software.amazon.opsworkscm.server.utils.TokenBucket;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces OpsWorks CM calls of a warm container so handlers running side by side stay under the account's API
+ * quotas. There is one token bucket per account, region and operation, shared by every invocation in the
+ * container. Each operation has a default rate that can be lowered or raised
+ * through the type configuration.
+ */
+public class ApiRateLimiter {
+
+    static final int DEFAULT_DESCRIBE_SERVERS_PER_SECOND = 10;
+    static final int DEFAULT_LIST_TAGS_PER_SECOND = 10;
+    static final int DEFAULT_OTHER_OPERATIONS_PER_SECOND = 5;
+
+    static final String DESCRIBE_SERVERS = "DescribeServers";
+    static final String LIST_TAGS_FOR_RESOURCE = "ListTagsForResource";
+
+    private static final ConcurrentMap<String, TokenBucket> BUCKETS = new ConcurrentHashMap<>();
+
+    public static final ApiRateLimiter UNLIMITED = new ApiRateLimiter(null, null, null, millis -> { });
+
+    private final String accountId;
+    private final String region;
+    private final TypeConfigurationModel typeConfiguration;
+    private final Sleeper sleeper;
+
+    ApiRateLimiter(final String accountId, final String region, final TypeConfigurationModel typeConfiguration, final Sleeper sleeper) {
+        this.accountId = accountId;
+        this.region = region;
+        this.typeConfiguration = typeConfiguration;
+        this.sleeper = sleeper;
+    }
+
+    public static ApiRateLimiter forAccountAndRegion(final String accountId, final String region,
+                                                     final TypeConfigurationModel typeConfiguration, final Sleeper sleeper) {
+        return new ApiRateLimiter(accountId, region, typeConfiguration, sleeper);
+    }
+
+    /**
+     * Waits until the operation may be called.
+     *
+     * @return milliseconds spent waiting
+     */
+    public long acquire(final String operation) {
+        return acquire(operation, Long.MAX_VALUE);
+    }
+
+    /**
+     * Waits until the operation may be called, but no longer than {@code maxWaitMillis}. A token that would take
+     * longer is not reserved, the caller only waits out the time it has.
+     *
+     * @return milliseconds spent waiting
+     */
+    public long acquire(final String operation, final long maxWaitMillis) {
+        if (this == UNLIMITED) {
+            return 0L;
+        }
+        final long maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, maxWaitMillis));
+        final long waitMillis = Math.min(TimeUnit.NANOSECONDS.toMillis(bucketFor(operation).tryReserve(maxWaitNanos)), Math.max(0L, maxWaitMillis));
+        if (waitMillis > 0) {
+            try {
+                sleeper.sleep(waitMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return waitMillis;
+    }
+
+    public boolean isUnlimited() {
+        return this == UNLIMITED;
+    }
+
+    public TokenBucket.Stats getStats(final String operation) {
+        return bucketFor(operation).getStats();
+    }
+
+    int permitsPerSecond(final String operation) {
+        final Integer configured;
+        final int defaultRate;
+        if (DESCRIBE_SERVERS.equals(operation)) {
+            configured = typeConfiguration == null ? null : typeConfiguration.getDescribeServersRequestsPerSecond();
+            defaultRate = DEFAULT_DESCRIBE_SERVERS_PER_SECOND;
+        } else if (LIST_TAGS_FOR_RESOURCE.equals(operation)) {
+            configured = typeConfiguration == null ? null : typeConfiguration.getListTagsForResourceRequestsPerSecond();
+            defaultRate = DEFAULT_LIST_TAGS_PER_SECOND;
+        } else {
+            configured = typeConfiguration == null ? null : typeConfiguration.getOtherRequestsPerSecond();
+            defaultRate = DEFAULT_OTHER_OPERATIONS_PER_SECOND;
+        }
+        return configured == null || configured <= 0 ? defaultRate : configured;
+    }
+
+    private TokenBucket bucketFor(final String operation) {
+        final int rate = permitsPerSecond(operation);
+        final String key = accountId + "|" + region + "|" + operation;
+        final TokenBucket bucket = BUCKETS.get(key);
+        if (bucket != null && bucket.getPermitsPerSecond() == rate) {
+            return bucket;
+        }
+        // A changed type configuration replaces the bucket; the old one is dropped with its history
+        return BUCKETS.compute(key, (k, existing) ->
+                existing != null && existing.getPermitsPerSecond() == rate ? existing : new TokenBucket(rate, rate));
+    }
+
+    static void reset() {
+        BUCKETS.clear();
+    }
+}
@@ -0,0 +1,75 @@
+package software.amazon.opsworkscm.server;
+
+import software.amazon.awssdk.services.opsworkscm.model.ServerStatus;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Polling policy with a fixed delay before the first check and a doubling, capped delay per server status after
+ * that. Statuses without their own backoff use the default one.
+ */
+public class BackoffPollingPolicy implements PollingPolicy {
+
+    private static final int MAX_DOUBLINGS = 16;
+
+    private final int firstCheckDelaySeconds;
+    private final Backoff defaultBackoff;
+    private final Map<ServerStatus, Backoff> backoffByStatus = new EnumMap<>(ServerStatus.class);
+
+    public BackoffPollingPolicy(final int firstCheckDelaySeconds, final Backoff defaultBackoff) {
+        this.firstCheckDelaySeconds = firstCheckDelaySeconds;
+        this.defaultBackoff = defaultBackoff;
+    }
+
+    /**
+     * CREATING polls stay at one minute: a longer cap would add up to its excess to the moment the server turns
+     * HEALTHY. Invocations are saved instead by skipping polls before the predicted completion. Maintenance and
+     * backups started by the service during creation usually finish quickly and are checked more often.
+     */
+    public static BackoffPollingPolicy forCreate() {
+        final Backoff shortOperation = new Backoff(30, 60);
+        return new BackoffPollingPolicy(60, new Backoff(60, 60))
+                .withBackoff(ServerStatus.BACKING_UP, shortOperation)
+                .withBackoff(ServerStatus.MODIFYING, shortOperation)
+                .withBackoff(ServerStatus.RESTORING, shortOperation)
+                .withBackoff(ServerStatus.UNDER_MAINTENANCE, shortOperation);
+    }
+
+    /**
+     * Servers that never finished creating are gone shortly after DeleteServer, so the first check comes early.
+     * DELETING polls never wait longer than the previous fixed delay.
+     */
+    public static BackoffPollingPolicy forDelete() {
+        return new BackoffPollingPolicy(15, new Backoff(60, 60))
+                .withBackoff(ServerStatus.DELETING, new Backoff(15, 60));
+    }
+
+    public BackoffPollingPolicy withBackoff(final ServerStatus status, final Backoff backoff) {
+        backoffByStatus.put(status, backoff);
+        return this;
+    }
+
+    @Override
+    public int getCallbackDelaySeconds(final int attempt, final ServerStatus status) {
+        if (attempt <= 0 || status == null) {
+            return firstCheckDelaySeconds;
+        }
+        return backoffByStatus.getOrDefault(status, defaultBackoff).getDelaySeconds(attempt);
+    }
+
+    public static class Backoff {
+        private final int initialDelaySeconds;
+        private final int maxDelaySeconds;
+
+        public Backoff(final int initialDelaySeconds, final int maxDelaySeconds) {
+            this.initialDelaySeconds = initialDelaySeconds;
+            this.maxDelaySeconds = maxDelaySeconds;
+        }
+
+        int getDelaySeconds(final int attempt) {
+            final long delay = (long) initialDelaySeconds << Math.min(attempt - 1, MAX_DOUBLINGS);
+            return (int) Math.min(delay, maxDelaySeconds);
+        }
+    }
+}
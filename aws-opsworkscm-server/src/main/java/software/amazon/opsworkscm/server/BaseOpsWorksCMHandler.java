@@ -1,33 +1,93 @@
 package software.amazon.opsworkscm.server;
 
 import com.amazonaws.util.StringUtils;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
 import software.amazon.awssdk.services.opsworkscm.OpsWorksCmClient;
 import software.amazon.awssdk.services.opsworkscm.model.DescribeServersResponse;
 import software.amazon.awssdk.services.opsworkscm.model.Server;
+import software.amazon.awssdk.services.opsworkscm.model.ServerEvent;
+import software.amazon.awssdk.services.opsworkscm.model.ServerStatus;
+import software.amazon.cloudformation.exceptions.CfnServiceInternalErrorException;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
 import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 import software.amazon.cloudformation.resource.IdentifierUtils;
 import software.amazon.opsworkscm.server.utils.LoggerWrapper;
+import software.amazon.opsworkscm.server.utils.Sleeper;
 
+import java.time.Clock;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 import static software.amazon.opsworkscm.server.ResourceModel.IDENTIFIER_KEY_SERVERNAME;
 
-abstract public class BaseOpsWorksCMHandler extends BaseHandler<CallbackContext> {
+abstract public class BaseOpsWorksCMHandler extends BaseHandler<CallbackContext, TypeConfigurationModel> {
 
     public final static String resourceTypeName = "OpsWorksCM::Server";
 
     protected ClientWrapper client;
     protected LoggerWrapper log;
+    protected Clock clock = Clock.systemUTC();
+    protected StabilizationStats stabilizationStats = StabilizationStats.getDefault();
+    protected Sleeper sleeper = Thread::sleep;
+    // Overrides the per account and region watcher
+    protected ServerStatusWatcher statusWatcher;
+    // Overrides the per account, region and operation rate limits
+    protected ApiRateLimiter rateLimiter;
+    // Overrides the per region circuit breaker
+    protected CircuitBreaker circuitBreaker;
+    protected CallbackScheduler callbackScheduler = new CallbackScheduler();
+    protected TypeConfigurationModel typeConfiguration;
+    protected boolean stripWriteOnlyPayload = true;
 
     protected static int NO_CALLBACK_DELAY = 0;
     protected static int CALLBACK_DELAY_SECONDS = 60;
+    private static final int PENDING_CALLBACK_DELAY = -1;
+    // Assumed when the proxy does not carry the remaining time of the Lambda invocation
+    protected static final long INVOCATION_TIME_BUDGET_MILLIS = 60_000L;
+    protected static final int MAX_PREDICTED_CALLBACK_DELAY_SECONDS = 600;
+    protected static final long SHORT_POLL_INTERVAL_MILLIS = 5_000L;
+    protected static final long SHORT_POLL_TIME_RESERVE_MILLIS = 10_000L;
+    protected static final long SHORT_POLL_GRACE_MILLIS = 120_000L;
+    protected static final int EVENT_FOLLOW_UP_DELAY_SECONDS = 10;
+    protected static final int MIN_EVENT_LOOKUP_DELAY_SECONDS = 120;
+    protected static final int SERVICE_RETRY_BASE_DELAY_SECONDS = 5;
+    protected static final int MAX_SERVICE_RETRY_DELAY_SECONDS = 300;
+    protected static final int MAX_SERVICE_RETRIES = 20;
     private static final int MAX_LENGTH_CONFIGURATION_SET_NAME = 40;
     private static final String SERVER_NAME_PREFIX = "Server-";
 
     @Override
+    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+            final AmazonWebServicesClientProxy proxy,
+            final ResourceHandlerRequest<ResourceModel> request,
+            final CallbackContext callbackContext,
+            final Logger logger,
+            final TypeConfigurationModel typeConfiguration) {
+        this.typeConfiguration = typeConfiguration;
+        this.client = null;
+        final RetryTelemetry retryTelemetry = RetryTelemetry.startInvocation(clock,
+                clock.millis() + InvocationTimeBudget.remainingMillis(proxy, INVOCATION_TIME_BUDGET_MILLIS));
+        try {
+            return handleRequest(proxy, request, callbackContext, logger);
+        } finally {
+            if (retryTelemetry.getAttempts() > 0) {
+                logger.log(retryTelemetry.toString());
+            }
+            final String rateLimitSummary = client == null ? null : client.getRateLimitSummary();
+            if (rateLimitSummary != null) {
+                logger.log(rateLimitSummary);
+            }
+        }
+    }
+
     abstract public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
@@ -39,6 +99,8 @@ abstract public class BaseOpsWorksCMHandler extends BaseHandler<CallbackContext>
                                      final CallbackContext callbackContext,
                                      final Logger logger) {
         InvocationContext context = new InvocationContext();
+        context.setInvocationStartTime(clock.millis());
+        context.setInvocationTimeBudgetMillis(InvocationTimeBudget.remainingMillis(proxy, INVOCATION_TIME_BUDGET_MILLIS));
         context.setRequest(request);
         context.setModel(request.getDesiredResourceState());
         context.setOldModel(request.getPreviousResourceState());
@@ -47,11 +109,32 @@ abstract public class BaseOpsWorksCMHandler extends BaseHandler<CallbackContext>
 
         setModelServerName(context);
 
-        final OpsWorksCmClient opsWorksCmClient = ClientBuilder.getClient();
-        this.client = new ClientWrapper(opsWorksCmClient, context.getModel(), context.getOldModel(), proxy, this.log);
+        final OpsWorksCmClient opsWorksCmClient = getOpsWorksCmClient(request);
+        this.client = new ClientWrapper(opsWorksCmClient, context.getModel(), context.getOldModel(), proxy, this.log, getRateLimiter(request), getCircuitBreaker(request));
+        this.client.setServerArn(getKnownServerArn(context));
+        this.client.setRemainingTimeMillis(() -> remainingTimeMillis(context));
         return context;
     }
 
+    protected ApiRateLimiter getRateLimiter(final ResourceHandlerRequest<ResourceModel> request) {
+        return rateLimiter != null ? rateLimiter : ApiRateLimiter.forAccountAndRegion(request.getAwsAccountId(), request.getRegion(), typeConfiguration, sleeper);
+    }
+
+    protected CircuitBreaker getCircuitBreaker(final ResourceHandlerRequest<ResourceModel> request) {
+        return circuitBreaker != null ? circuitBreaker : CircuitBreaker.forAccountAndRegion(request.getAwsAccountId(), request.getRegion());
+    }
+
+    protected long remainingTimeMillis(final InvocationContext context) {
+        return context.getInvocationTimeBudgetMillis() - (clock.millis() - context.getInvocationStartTime());
+    }
+
+    protected static OpsWorksCmClient getOpsWorksCmClient(final ResourceHandlerRequest<ResourceModel> request) {
+        if (StringUtils.isNullOrEmpty(request.getRegion())) {
+            return ClientBuilder.getClient();
+        }
+        return ClientBuilder.getClient(request.getRegion());
+    }
+
     private String generateServerName(final String logicalResourceId, final String clientRequestToken) {
         if (StringUtils.isNullOrEmpty(logicalResourceId) || Character.isDigit(logicalResourceId.charAt(0))) {
             return SERVER_NAME_PREFIX + IdentifierUtils.generateResourceIdentifier(logicalResourceId, clientRequestToken,
@@ -61,6 +144,14 @@ abstract public class BaseOpsWorksCMHandler extends BaseHandler<CallbackContext>
         }
     }
 
+    private String getKnownServerArn(InvocationContext context) {
+        final String serverArn = context.getCallbackContext().getServerArn();
+        if (StringUtils.isNullOrEmpty(serverArn) && context.getOldModel() != null) {
+            return context.getOldModel().getArn();
+        }
+        return serverArn;
+    }
+
     private void setModelServerName(InvocationContext context) {
         ResourceModel model = context.getModel();
         ResourceModel oldModel = context.getOldModel();
@@ -76,6 +167,247 @@ abstract public class BaseOpsWorksCMHandler extends BaseHandler<CallbackContext>
         }
     }
 
+    protected void recordServerState(final CallbackContext callbackContext, final Server server) {
+        if (server == null) {
+            return;
+        }
+        if (server.serverArn() != null) {
+            callbackContext.setServerArn(server.serverArn());
+            client.setServerArn(server.serverArn());
+        }
+        if (server.status() != null) {
+            if (!server.statusAsString().equals(callbackContext.getLastServerStatus())) {
+                callbackContext.setStatusEnteredAt(clock.millis());
+            }
+            callbackContext.setLastServerStatus(server.statusAsString());
+            callbackContext.setLastStatusObservedAt(clock.millis());
+        }
+    }
+
+    protected void startStabilization(final CallbackContext callbackContext, final String statsKey) {
+        callbackContext.setStabilizationStarted(true);
+        callbackContext.setStabilizationStartTime(clock.millis());
+        callbackContext.setExpectedStabilizationSeconds(stabilizationStats.estimateSeconds(statsKey));
+        callbackContext.setEventsNextToken(null);
+        callbackContext.setLastEventTimestamp(callbackContext.getStabilizationStartTime());
+    }
+
+    protected int stabilizationTimeoutMinutes(final Function<TypeConfigurationModel, Integer> setting, final int defaultMinutes) {
+        final Integer configured = typeConfiguration == null ? null : setting.apply(typeConfiguration);
+        return configured == null || configured <= 0 ? defaultMinutes : configured;
+    }
+
+    protected boolean isPastStabilizationDeadline(final CallbackContext callbackContext, final int timeoutMinutes) {
+        if (callbackContext.getStabilizationStartTime() <= 0) {
+            // Callbacks started before the start time was recorded count from now on
+            callbackContext.setStabilizationStartTime(clock.millis());
+            return false;
+        }
+        return clock.millis() - callbackContext.getStabilizationStartTime() > timeoutMinutes * 60_000L;
+    }
+
+    protected ProgressEvent<ResourceModel, CallbackContext> stabilizationTimedOut(final InvocationContext context,
+                                                                                  final Server server,
+                                                                                  final int timeoutMinutes) {
+        final String message = String.format("Server %s did not stabilize within %d minutes. Last observed status: %s. With reason: %s",
+                server.serverName(), timeoutMinutes, server.statusAsString(), server.statusReason());
+        log.info(message);
+        return ProgressEvent.failed(context.getModel(), context.getCallbackContext(), HandlerErrorCode.NotStabilized, message);
+    }
+
+    /**
+     * Checks the events reported since the last poll. A failure event usually means the status is about to flip,
+     * so the next check comes early instead of after the full delay. Events are only read before a long wait;
+     * before a short one the lookup would cost more calls than the early check saves.
+     */
+    protected int eventAwareCallbackDelaySeconds(final CallbackContext callbackContext, final String serverName, final int delaySeconds) {
+        if (delaySeconds < MIN_EVENT_LOOKUP_DELAY_SECONDS) {
+            return delaySeconds;
+        }
+        final List<ServerEvent> newEvents = new ServerEventTracker(client, log).fetchNewEvents(callbackContext, serverName);
+        final Optional<ServerEvent> failureEvent = newEvents.stream().filter(ServerEventTracker::isFailureEvent).findFirst();
+        if (!failureEvent.isPresent()) {
+            return delaySeconds;
+        }
+        log.info(String.format("Server %s reported a failure: %s", serverName, failureEvent.get().message()));
+        return Math.min(delaySeconds, EVENT_FOLLOW_UP_DELAY_SECONDS);
+    }
+
+    /**
+     * Completion is only seen by the first check after it, which comes no earlier than the predicted delay.
+     * Counting up to that check would keep every sample at or above the current estimate, so the duration is
+     * taken up to the previous check, the last time the server was seen still working.
+     */
+    protected void recordStabilizationDuration(final CallbackContext callbackContext, final String statsKey, final long previousCheckAt) {
+        final long startedAt = callbackContext.getStabilizationStartTime();
+        if (startedAt <= 0) {
+            return;
+        }
+        // Without a check since the start the poll lag is unknown
+        final long completedAfter = previousCheckAt > startedAt ? previousCheckAt : clock.millis();
+        stabilizationStats.record(statsKey, (completedAfter - startedAt) / 1000);
+    }
+
+    /**
+     * Waits at least the polling policy delay, and longer while the expected completion time is still ahead.
+     */
+    protected int predictedCallbackDelaySeconds(final CallbackContext callbackContext, final int policyDelaySeconds) {
+        if (callbackContext.getExpectedStabilizationSeconds() <= 0 || callbackContext.getStabilizationStartTime() <= 0) {
+            return policyDelaySeconds;
+        }
+        final long elapsedMillis = clock.millis() - callbackContext.getStabilizationStartTime();
+        final long remainingSeconds = (callbackContext.getExpectedStabilizationSeconds() * 1000L - elapsedMillis + 999) / 1000;
+        return (int) Math.max(policyDelaySeconds, Math.min(remainingSeconds, MAX_PREDICTED_CALLBACK_DELAY_SECONDS));
+    }
+
+    /**
+     * Maintenance runs and backups hold the server for a predictable stretch, so while one is in progress the
+     * next check waits until the run is expected to end instead of polling through it.
+     */
+    protected int serviceWindowCallbackDelaySeconds(final CallbackContext callbackContext, final Server server, final int delaySeconds) {
+        if (server == null) {
+            return delaySeconds;
+        }
+        final long now = clock.millis();
+        final long expectedEnd = ServiceWindowEstimator.estimateEndMillis(server.status(),
+                server.preferredMaintenanceWindow(), server.preferredBackupWindow(), callbackContext.getStatusEnteredAt(), now);
+        if (expectedEnd <= now) {
+            return delaySeconds;
+        }
+        final long remainingSeconds = (expectedEnd - now + 999) / 1000;
+        return (int) Math.max(delaySeconds, Math.min(remainingSeconds, MAX_PREDICTED_CALLBACK_DELAY_SECONDS));
+    }
+
+    protected int scheduleCallbackSeconds(final String serverName, final int delaySeconds) {
+        return callbackScheduler.schedule(serverName, delaySeconds, clock.millis());
+    }
+
+    protected DescribeServersResponse describeForStabilization(final InvocationContext context, final String serverName) {
+        final ServerStatusWatcher watcher = statusWatcher != null ? statusWatcher
+                : ServerStatusWatcher.forStack(context.getRequest().getAwsAccountId(), context.getRequest().getRegion(), context.getRequest().getStackId());
+        return watcher.describeServer(client, serverName, context.getCallbackContext().getStabilizationStartTime(), clock.millis());
+    }
+
+    /**
+     * Repeats the stabilization check in-process while it is still in progress and the server is expected to
+     * finish before this invocation runs out of time. Otherwise hands back to CloudFormation after the first check.
+     * The callback delay of a server that is still stabilizing is only worked out once, when handing back.
+     */
+    protected ProgressEvent<ResourceModel, CallbackContext> shortPollStabilization(
+            final InvocationContext context,
+            final Function<InvocationContext, ProgressEvent<ResourceModel, CallbackContext>> check,
+            final ToIntFunction<InvocationContext> callbackDelaySeconds) {
+        ProgressEvent<ResourceModel, CallbackContext> progress = check.apply(context);
+        while (progress.getStatus() == OperationStatus.IN_PROGRESS
+                && !isInServiceWindow(context.getCallbackContext())
+                && isCompletionExpectedInThisInvocation(context)) {
+            try {
+                sleeper.sleep(SHORT_POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            progress = check.apply(context);
+        }
+        if (progress.getStatus() == OperationStatus.IN_PROGRESS && progress.getCallbackDelaySeconds() == PENDING_CALLBACK_DELAY) {
+            progress.setCallbackDelaySeconds(callbackDelaySeconds.applyAsInt(context));
+        }
+        return progress;
+    }
+
+    /**
+     * Result of a stabilization check that found the server still working. Its callback delay is filled in by
+     * {@link #shortPollStabilization}.
+     */
+    protected ProgressEvent<ResourceModel, CallbackContext> stillStabilizing(final InvocationContext context, final Server server) {
+        context.setStabilizingServer(server);
+        return ProgressEvent.defaultInProgressHandler(context.getCallbackContext(), PENDING_CALLBACK_DELAY, callbackModel(context.getModel()));
+    }
+
+    private static boolean isInServiceWindow(final CallbackContext callbackContext) {
+        final ServerStatus status = ServerStatus.fromValue(callbackContext.getLastServerStatus());
+        return status == ServerStatus.UNDER_MAINTENANCE || status == ServerStatus.BACKING_UP;
+    }
+
+    private boolean isCompletionExpectedInThisInvocation(final InvocationContext context) {
+        final CallbackContext callbackContext = context.getCallbackContext();
+        if (callbackContext.getExpectedStabilizationSeconds() <= 0 || callbackContext.getStabilizationStartTime() <= 0) {
+            return false;
+        }
+        final long remainingMillis = remainingTimeMillis(context);
+        if (remainingMillis < SHORT_POLL_INTERVAL_MILLIS + SHORT_POLL_TIME_RESERVE_MILLIS) {
+            return false;
+        }
+        final long elapsedMillis = clock.millis() - callbackContext.getStabilizationStartTime();
+        final long expectedMillis = callbackContext.getExpectedStabilizationSeconds() * 1000L;
+        return elapsedMillis + remainingMillis >= expectedMillis && elapsedMillis <= expectedMillis + SHORT_POLL_GRACE_MILLIS;
+    }
+
+    /**
+     * The model handed back with IN_PROGRESS is sent with every callback. The certificate, private key and engine
+     * attributes are only needed by CreateServer, so they are dropped from it once the server call is behind us.
+     */
+    protected ResourceModel callbackModel(final ResourceModel model) {
+        if (stripWriteOnlyPayload && model != null) {
+            model.setCustomCertificate(null);
+            model.setCustomPrivateKey(null);
+            model.setEngineAttributes(null);
+        }
+        return model;
+    }
+
+    protected static boolean isThrottling(final Exception e) {
+        return e instanceof AwsServiceException && ((AwsServiceException) e).isThrottlingException();
+    }
+
+    protected static boolean isTransientServiceError(final Exception e) {
+        return e instanceof AwsServiceException && ((AwsServiceException) e).statusCode() >= 500;
+    }
+
+    /**
+     * Hands a throttled or 5xx call back to CloudFormation to be retried after an exponential back-off, so a busy
+     * account slows the stack down instead of rolling it back. Gives up after {@link #MAX_SERVICE_RETRIES} attempts.
+     */
+    protected ProgressEvent<ResourceModel, CallbackContext> retryAfterServiceError(final InvocationContext context,
+                                                                                   final String serverName,
+                                                                                   final AwsServiceException e) {
+        final CallbackContext callbackContext = context.getCallbackContext();
+        final int retryTimes = callbackContext.getServiceRetryTimes() + 1;
+        if (retryTimes > MAX_SERVICE_RETRIES) {
+            log.error(String.format("Giving up on server %s after %d retried service errors.", serverName, MAX_SERVICE_RETRIES), e);
+            if (isThrottling(e)) {
+                throw new CfnThrottlingException(e);
+            }
+            throw new CfnServiceInternalErrorException(e);
+        }
+        callbackContext.setServiceRetryTimes(retryTimes);
+        final int delaySeconds = (int) Math.min(MAX_SERVICE_RETRY_DELAY_SECONDS,
+                (long) SERVICE_RETRY_BASE_DELAY_SECONDS << Math.min(retryTimes - 1, 16));
+        log.info(String.format("Retrying server %s in %d seconds after %s (attempt %d): %s",
+                serverName, delaySeconds, isThrottling(e) ? "throttling" : "service error", retryTimes, e.getMessage()));
+        return ProgressEvent.defaultInProgressHandler(callbackContext, scheduleCallbackSeconds(serverName, delaySeconds), context.getModel());
+    }
+
+    /**
+     * Clears the service retry count once a call went through, so {@link #MAX_SERVICE_RETRIES} bounds consecutive
+     * failures rather than every throttle over a long stabilization.
+     */
+    protected void resetServiceRetries(final CallbackContext callbackContext) {
+        callbackContext.setServiceRetryTimes(0);
+    }
+
+    /**
+     * Calls back once the open circuit lets a probe through, without counting the wait as a service retry.
+     */
+    protected ProgressEvent<ResourceModel, CallbackContext> waitForCircuit(final InvocationContext context,
+                                                                           final String serverName,
+                                                                           final CircuitOpenException e) {
+        final int delaySeconds = (int) Math.min(MAX_SERVICE_RETRY_DELAY_SECONDS,
+                Math.max(SERVICE_RETRY_BASE_DELAY_SECONDS, TimeUnit.MILLISECONDS.toSeconds(e.getRetryAfterMillis())));
+        log.info(String.format("Not calling OpsWorks CM for server %s, retrying in %d seconds: %s", serverName, delaySeconds, e.getMessage()));
+        return ProgressEvent.defaultInProgressHandler(context.getCallbackContext(), scheduleCallbackSeconds(serverName, delaySeconds), context.getModel());
+    }
+
     protected ResourceModel generateModel(InvocationContext context) {
         final DescribeServersResponse result;
         final String serverName = context.getModel().getPrimaryIdentifier().get(IDENTIFIER_KEY_SERVERNAME).toString();
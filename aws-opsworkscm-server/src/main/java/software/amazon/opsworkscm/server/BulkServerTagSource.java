@@ -0,0 +1,74 @@
+package software.amazon.opsworkscm.server;
+
+import software.amazon.awssdk.services.resourcegroupstaggingapi.ResourceGroupsTaggingApiClient;
+import software.amazon.awssdk.services.resourcegroupstaggingapi.model.GetResourcesResponse;
+import software.amazon.awssdk.services.resourcegroupstaggingapi.model.ResourceTagMapping;
+import software.amazon.opsworkscm.server.utils.LoggerWrapper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Fetches the tags of a whole page of servers with Resource Groups Tagging API GetResources calls, up to
+ * {@link #MAX_ARNS_PER_REQUEST} ARNs per call. GetResources does not page results of an ARN list, so each batch is
+ * a single call. Calls go through the {@link ClientWrapper} rate limiter and circuit breaker. If the tagging API
+ * cannot be used (missing permission, throttling, unsupported region) the lookup falls back to the given
+ * per-server source; an open circuit is passed on instead, since the fallback would be refused as well.
+ */
+public class BulkServerTagSource implements ServerTagSource {
+
+    static final int MAX_ARNS_PER_REQUEST = 100;
+
+    private final Supplier<ResourceGroupsTaggingApiClient> taggingClient;
+    private final ClientWrapper client;
+    private final ServerTagSource fallback;
+    private final LoggerWrapper log;
+
+    public BulkServerTagSource(final Supplier<ResourceGroupsTaggingApiClient> taggingClient,
+                               final ClientWrapper client,
+                               final ServerTagSource fallback,
+                               final LoggerWrapper log) {
+        this.taggingClient = taggingClient;
+        this.client = client;
+        this.fallback = fallback;
+        this.log = log;
+    }
+
+    @Override
+    public Map<String, List<Tag>> getTags(final List<String> serverArns) {
+        if (serverArns.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        try {
+            return getTagsInBulk(serverArns);
+        } catch (CircuitOpenException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            log.error("Bulk tag lookup failed, listing tags per server", e);
+            return fallback.getTags(serverArns);
+        }
+    }
+
+    private Map<String, List<Tag>> getTagsInBulk(final List<String> serverArns) {
+        final ResourceGroupsTaggingApiClient tagging = taggingClient.get();
+        final Map<String, List<Tag>> tagsByArn = new LinkedHashMap<>();
+        serverArns.forEach(arn -> tagsByArn.put(arn, new ArrayList<>()));
+
+        for (int from = 0; from < serverArns.size(); from += MAX_ARNS_PER_REQUEST) {
+            final List<String> batch = serverArns.subList(from, Math.min(from + MAX_ARNS_PER_REQUEST, serverArns.size()));
+            final GetResourcesResponse response = client.getResources(tagging, batch);
+            for (final ResourceTagMapping mapping : response.resourceTagMappingList()) {
+                if (tagsByArn.containsKey(mapping.resourceARN())) {
+                    tagsByArn.put(mapping.resourceARN(), mapping.tags().stream()
+                            .map(tag -> Tag.builder().key(tag.key()).value(tag.value()).build())
+                            .collect(Collectors.toList()));
+                }
+            }
+        }
+        return tagsByArn;
+    }
+}
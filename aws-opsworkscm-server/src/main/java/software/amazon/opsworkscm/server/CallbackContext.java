@@ -13,8 +13,29 @@ public class CallbackContext {
     private boolean stabilizationStarted;
     private int stabilizationRetryTimes;
 
-    private boolean updateTagComplete;
-    private boolean updateServerComplete;
+    private UpdatePhase updatePhase;
+
+    // Last known server state, kept so callbacks do not describe the server just to recover it
+    private String serverArn;
+    private String lastServerStatus;
+    private long lastStatusObservedAt;
+    private long statusEnteredAt;
+
+    // When delete-server was first held back because the server was busy, 0 when it never was
+    private long busyWaitStartTime;
+
+    // When the mutating call was made and how long the stabilization is expected to take, 0 when unknown
+    private long stabilizationStartTime;
+    private int expectedStabilizationSeconds;
+
+    // DescribeEvents position: cursor of a scan that ran out of pages, the newest event that scan has reported
+    // so far, and the newest event already seen
+    private String eventsNextToken;
+    private long pendingEventTimestamp;
+    private long lastEventTimestamp;
+
+    // Throttled or 5xx calls retried through a callback so far
+    private int serviceRetryTimes;
 
     public int incrementRetryTimes() {
         final int newRetryTimes = getStabilizationRetryTimes() + 1;
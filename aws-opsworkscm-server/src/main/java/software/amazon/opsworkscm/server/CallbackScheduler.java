@@ -0,0 +1,35 @@
+package software.amazon.opsworkscm.server;
+
+/**
+ * Spreads stabilization callbacks of servers that were created or deleted together. Every server gets a fixed
+ * phase derived from its name, and each callback delay is shortened by up to half so the server wakes up on its
+ * phase. Servers started in the same second therefore poll in different seconds. Delays are never lengthened, so
+ * capped and predicted delays keep their bound at the cost of somewhat more frequent polls. Short delays are left
+ * alone.
+ */
+public class CallbackScheduler {
+
+    static final int MIN_JITTERED_DELAY_SECONDS = 20;
+    static final int MAX_SPREAD_SECONDS = 60;
+
+    public int schedule(final String serverName, final int delaySeconds, final long nowMillis) {
+        if (serverName == null || delaySeconds < MIN_JITTERED_DELAY_SECONDS) {
+            return delaySeconds;
+        }
+        final int spread = Math.min(delaySeconds / 2, MAX_SPREAD_SECONDS);
+        final long latestWakeUp = nowMillis / 1000 + delaySeconds;
+        final int offset = (int) Math.floorMod(latestWakeUp - phase(serverName, spread), (long) spread);
+        return delaySeconds - offset;
+    }
+
+    private static int phase(final String serverName, final int spread) {
+        // Finalizer of MurmurHash3 so names that differ in one character land in unrelated phases
+        int hash = serverName.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, spread);
+    }
+}
@@ -0,0 +1,138 @@
+package software.amazon.opsworkscm.server;
+
+import lombok.Getter;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops a warm container from calling a degraded OpsWorks CM endpoint. A burst of 5xx responses or I/O failures
+ * opens the circuit for the account and region; while open, calls fail fast with {@link CircuitOpenException}. Once the open
+ * period has passed a single probe call is let through, and its outcome closes or reopens the circuit. Throttling
+ * and other 4xx errors show the endpoint is answering and count as successes; client errors that never reached the
+ * endpoint, such as missing credentials or marshalling failures, say nothing about it and count as successes too.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    static final int FAILURE_THRESHOLD = 5;
+    static final long FAILURE_WINDOW_MILLIS = 30_000L;
+    static final long OPEN_MILLIS = 30_000L;
+
+    private static final ConcurrentMap<String, CircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+
+    public static final CircuitBreaker DISABLED = new CircuitBreaker(() -> 0L);
+
+    private final LongSupplier currentMillis;
+
+    @Getter
+    private State state = State.CLOSED;
+    private int failures;
+    private long firstFailureAt;
+    private long openedAt;
+    private boolean probeInFlight;
+    private long probeStartedAt;
+
+    CircuitBreaker(final LongSupplier currentMillis) {
+        this.currentMillis = currentMillis;
+    }
+
+    public static CircuitBreaker forAccountAndRegion(final String accountId, final String region) {
+        return BREAKERS.computeIfAbsent(accountId + "|" + region, key -> new CircuitBreaker(System::currentTimeMillis));
+    }
+
+    static void reset() {
+        BREAKERS.clear();
+    }
+
+    /**
+     * Claims permission for one call.
+     *
+     * @throws CircuitOpenException if the circuit is open or a probe is already in flight
+     */
+    public synchronized void acquire() {
+        if (this == DISABLED || state == State.CLOSED) {
+            return;
+        }
+        final long now = currentMillis.getAsLong();
+        final long retryAfterMillis = openedAt + OPEN_MILLIS - now;
+        if (state == State.OPEN && retryAfterMillis <= 0) {
+            state = State.HALF_OPEN;
+        }
+        // A probe that never reported back must not hold the circuit half-open for good
+        if (state == State.HALF_OPEN && (!probeInFlight || now - probeStartedAt > OPEN_MILLIS)) {
+            probeInFlight = true;
+            probeStartedAt = now;
+            return;
+        }
+        throw new CircuitOpenException(Math.max(retryAfterMillis, 0L));
+    }
+
+    public synchronized void onSuccess() {
+        if (this == DISABLED) {
+            return;
+        }
+        state = State.CLOSED;
+        failures = 0;
+        probeInFlight = false;
+    }
+
+    public synchronized void onFailure() {
+        if (this == DISABLED) {
+            return;
+        }
+        final long now = currentMillis.getAsLong();
+        if (state == State.HALF_OPEN) {
+            open(now);
+            return;
+        }
+        if (failures == 0 || now - firstFailureAt > FAILURE_WINDOW_MILLIS) {
+            failures = 0;
+            firstFailureAt = now;
+        }
+        if (++failures >= FAILURE_THRESHOLD) {
+            open(now);
+        }
+    }
+
+    /**
+     * Records the outcome of a call that threw.
+     */
+    public void onError(final RuntimeException e) {
+        if (isEndpointFailure(e)) {
+            onFailure();
+        } else {
+            onSuccess();
+        }
+    }
+
+    static boolean isEndpointFailure(final RuntimeException e) {
+        if (e instanceof AwsServiceException) {
+            final AwsServiceException serviceException = (AwsServiceException) e;
+            return !serviceException.isThrottlingException() && serviceException.statusCode() >= 500;
+        }
+        if (!(e instanceof SdkClientException)) {
+            return false;
+        }
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void open(final long now) {
+        state = State.OPEN;
+        openedAt = now;
+        failures = 0;
+        probeInFlight = false;
+    }
+}
@@ -0,0 +1,19 @@
+package software.amazon.opsworkscm.server;
+
+import lombok.Getter;
+
+/**
+ * Thrown instead of calling OpsWorks CM while the {@link CircuitBreaker} of the region is open.
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    @Getter
+    private final long retryAfterMillis;
+
+    public CircuitOpenException(final long retryAfterMillis) {
+        super(String.format("OpsWorks CM circuit is open, retry in %d ms.", retryAfterMillis));
+        this.retryAfterMillis = retryAfterMillis;
+    }
+}
@@ -3,27 +3,76 @@ package software.amazon.opsworkscm.server;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import software.amazon.awssdk.auth.credentials.EnvironmentVariableCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.opsworkscm.OpsWorksCmClient;
+import software.amazon.awssdk.services.resourcegroupstaggingapi.ResourceGroupsTaggingApiClient;
 import software.amazon.cloudformation.LambdaWrapper;
 
 import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Clients are pooled per region and endpoint so warm Lambda containers do not rebuild the SDK client on every
+ * callback. Pooled clients never hold caller credentials: every call goes through
+ * {@code AmazonWebServicesClientProxy.injectCredentialsAndInvokeV2}, which attaches the credentials of the
+ * current invocation to the request itself. SDK retries follow {@link SdkRetryPolicy}.
+ */
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class ClientBuilder {
 
+    private static final String DEFAULT_CLIENT_KEY = "default";
+    private static final String ENDPOINT_FORMAT = "https://opsworks-cm.%s.amazonaws.com";
+
+    private static final ConcurrentMap<String, OpsWorksCmClient> CLIENTS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, ResourceGroupsTaggingApiClient> TAGGING_CLIENTS = new ConcurrentHashMap<>();
+
     static OpsWorksCmClient getClient() {
+        return CLIENTS.computeIfAbsent(DEFAULT_CLIENT_KEY, key -> buildClient());
+    }
+
+    static OpsWorksCmClient getClient(final String region) {
+        final String endpoint = String.format(ENDPOINT_FORMAT, region);
+        return CLIENTS.computeIfAbsent(region + "|" + endpoint, key -> buildClient(region, endpoint));
+    }
+
+    static OpsWorksCmClient buildClient() {
         return OpsWorksCmClient.builder()
                 .httpClient(LambdaWrapper.HTTP_CLIENT)
+                .overrideConfiguration(overrideConfiguration())
                 .build();
     }
 
-    static OpsWorksCmClient getClient(final String region) {
+    static OpsWorksCmClient buildClient(final String region, final String endpoint) {
         return OpsWorksCmClient.builder()
                 .credentialsProvider(EnvironmentVariableCredentialsProvider.create())
                 .region(Region.of(region))
                 .httpClient(LambdaWrapper.HTTP_CLIENT)
-                .endpointOverride(URI.create(String.format("https://opsworks-cm.%s.amazonaws.com", region)))
+                .overrideConfiguration(overrideConfiguration())
+                .endpointOverride(URI.create(endpoint))
+                .build();
+    }
+
+    static ResourceGroupsTaggingApiClient getTaggingClient() {
+        return TAGGING_CLIENTS.computeIfAbsent(DEFAULT_CLIENT_KEY, key -> ResourceGroupsTaggingApiClient.builder()
+                .httpClient(LambdaWrapper.HTTP_CLIENT)
+                .overrideConfiguration(overrideConfiguration())
+                .build());
+    }
+
+    static ResourceGroupsTaggingApiClient getTaggingClient(final String region) {
+        return TAGGING_CLIENTS.computeIfAbsent(region, key -> ResourceGroupsTaggingApiClient.builder()
+                .credentialsProvider(EnvironmentVariableCredentialsProvider.create())
+                .region(Region.of(region))
+                .httpClient(LambdaWrapper.HTTP_CLIENT)
+                .overrideConfiguration(overrideConfiguration())
+                .build());
+    }
+
+    private static ClientOverrideConfiguration overrideConfiguration() {
+        return ClientOverrideConfiguration.builder()
+                .retryPolicy(SdkRetryPolicy.create())
                 .build();
     }
 }
@@ -1,11 +1,16 @@
 package software.amazon.opsworkscm.server;
 
-import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import software.amazon.awssdk.awscore.AwsRequest;
+import software.amazon.awssdk.awscore.AwsResponse;
 import software.amazon.awssdk.services.opsworkscm.OpsWorksCmClient;
 import software.amazon.awssdk.services.opsworkscm.model.CreateServerRequest;
 import software.amazon.awssdk.services.opsworkscm.model.CreateServerResponse;
 import software.amazon.awssdk.services.opsworkscm.model.DeleteServerRequest;
 import software.amazon.awssdk.services.opsworkscm.model.DeleteServerResponse;
+import software.amazon.awssdk.services.opsworkscm.model.DescribeEventsRequest;
+import software.amazon.awssdk.services.opsworkscm.model.DescribeEventsResponse;
 import software.amazon.awssdk.services.opsworkscm.model.DescribeServersRequest;
 import software.amazon.awssdk.services.opsworkscm.model.DescribeServersResponse;
 import software.amazon.awssdk.services.opsworkscm.model.EngineAttribute;
@@ -19,18 +24,28 @@ import software.amazon.awssdk.services.opsworkscm.model.UntagResourceRequest;
 import software.amazon.awssdk.services.opsworkscm.model.UntagResourceResponse;
 import software.amazon.awssdk.services.opsworkscm.model.UpdateServerRequest;
 import software.amazon.awssdk.services.opsworkscm.model.UpdateServerResponse;
+import software.amazon.awssdk.services.resourcegroupstaggingapi.ResourceGroupsTaggingApiClient;
+import software.amazon.awssdk.services.resourcegroupstaggingapi.model.GetResourcesRequest;
+import software.amazon.awssdk.services.resourcegroupstaggingapi.model.GetResourcesResponse;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.opsworkscm.server.utils.LoggerWrapper;
+import software.amazon.opsworkscm.server.utils.TokenBucket;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import static software.amazon.opsworkscm.server.ResourceModel.IDENTIFIER_KEY_SERVERNAME;
 
-@AllArgsConstructor
 public class ClientWrapper {
 
     OpsWorksCmClient client;
@@ -39,30 +54,120 @@ public class ClientWrapper {
     AmazonWebServicesClientProxy proxy;
     LoggerWrapper log;
 
+    @Getter
+    @Setter
+    private String serverArn;
+
+    private TagDiff tagDiff;
+
+    // Time left in the invocation, rate limit waits never run past it
+    @Setter
+    private LongSupplier remainingTimeMillis = () -> Long.MAX_VALUE;
+
+    private final ApiRateLimiter rateLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final AtomicLong rateLimitWaitMillis = new AtomicLong();
+    private final Set<String> rateLimitedOperations = ConcurrentHashMap.newKeySet();
+    // Time the last call of the current thread spent in the service, rate limit wait excluded
+    private final ThreadLocal<Long> lastCallNanos = ThreadLocal.withInitial(() -> 0L);
+
+    // Describe results for this invocation, dropped whenever the server is mutated
+    private final Map<String, DescribeServersResponse> describeServerResponses = new HashMap<>();
+
+    public ClientWrapper(final OpsWorksCmClient client,
+                         final ResourceModel model,
+                         final ResourceModel oldModel,
+                         final AmazonWebServicesClientProxy proxy,
+                         final LoggerWrapper log) {
+        this(client, model, oldModel, proxy, log, ApiRateLimiter.UNLIMITED);
+    }
+
+    public ClientWrapper(final OpsWorksCmClient client,
+                         final ResourceModel model,
+                         final ResourceModel oldModel,
+                         final AmazonWebServicesClientProxy proxy,
+                         final LoggerWrapper log,
+                         final ApiRateLimiter rateLimiter) {
+        this(client, model, oldModel, proxy, log, rateLimiter, CircuitBreaker.DISABLED);
+    }
+
+    public ClientWrapper(final OpsWorksCmClient client,
+                         final ResourceModel model,
+                         final ResourceModel oldModel,
+                         final AmazonWebServicesClientProxy proxy,
+                         final LoggerWrapper log,
+                         final ApiRateLimiter rateLimiter,
+                         final CircuitBreaker circuitBreaker) {
+        this.client = client;
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.model = model;
+        this.oldModel = oldModel;
+        this.proxy = proxy;
+        this.log = log;
+    }
+
     public DescribeServersResponse describeServer(String serverName) {
-        return proxy.injectCredentialsAndInvokeV2(buildDescribeServerRequest(serverName), client::describeServers);
+        final DescribeServersResponse cachedResponse = describeServerResponses.get(serverName);
+        if (cachedResponse != null) {
+            return cachedResponse;
+        }
+        final DescribeServersResponse response = invoke(buildDescribeServerRequest(serverName), client::describeServers);
+        if (response != null) {
+            describeServerResponses.put(serverName, response);
+        }
+        return response;
+    }
+
+    public DescribeServersResponse refreshServer(String serverName) {
+        describeServerResponses.remove(serverName);
+        return describeServer(serverName);
+    }
+
+    public DescribeEventsResponse describeEvents(String serverName, String nextToken) {
+        return invoke(buildDescribeEventsRequest(serverName, nextToken), client::describeEvents);
     }
 
     public ListTagsForResourceResponse listServerTags(String resourceArn) {
-        return proxy.injectCredentialsAndInvokeV2(buildListTagsForResourceRequest(resourceArn), client::listTagsForResource);
+        return invoke(buildListTagsForResourceRequest(resourceArn), client::listTagsForResource);
     }
 
-    public DescribeServersResponse describeAllServers() {
-        return proxy.injectCredentialsAndInvokeV2(buildDescribeAllServersRequest(), client::describeServers);
+    /**
+     * Tags of up to 100 resources in one Resource Groups Tagging API call. It is paced and guarded like the
+     * OpsWorks CM calls; both endpoints sit behind the same network path of the region.
+     */
+    public GetResourcesResponse getResources(final ResourceGroupsTaggingApiClient taggingClient, final List<String> resourceArns) {
+        return invoke(GetResourcesRequest.builder().resourceARNList(resourceArns).build(), taggingClient::getResources);
+    }
+
+    public DescribeServersResponse describeAllServers(String nextToken, Integer maxResults) {
+        return invoke(buildDescribeAllServersRequest(nextToken, maxResults), client::describeServers);
     }
 
     public DeleteServerResponse deleteServer() {
-        return proxy.injectCredentialsAndInvokeV2(buildDeleteServerRequest(), client::deleteServer);
+        try {
+            return invoke(buildDeleteServerRequest(), client::deleteServer);
+        } finally {
+            describeServerResponses.clear();
+        }
     }
 
     public CreateServerResponse createServer() {
-        return proxy.injectCredentialsAndInvokeV2(buildCreateServerRequest(), client::createServer);
+        try {
+            return invoke(buildCreateServerRequest(), client::createServer);
+        } finally {
+            describeServerResponses.clear();
+        }
     }
 
     public TagResourceResponse tagServer() {
         TagResourceRequest request = buildTagResourceRequest();
         if (request != null) {
-            return proxy.injectCredentialsAndInvokeV2(request, client::tagResource);
+            try {
+                return invoke(request, client::tagResource);
+            } finally {
+                describeServerResponses.clear();
+            }
         }
         return null;
     }
@@ -70,13 +175,92 @@ public class ClientWrapper {
     public UntagResourceResponse untagServer() {
         UntagResourceRequest request = buildUntagResourceRequest();
         if (request != null) {
-            return proxy.injectCredentialsAndInvokeV2(request, client::untagResource);
+            try {
+                return invoke(request, client::untagResource);
+            } finally {
+                describeServerResponses.clear();
+            }
         }
         return null;
     }
 
     public UpdateServerResponse updateServer() {
-        return proxy.injectCredentialsAndInvokeV2(buildUpdateServerRequest(), client::updateServer);
+        UpdateServerRequest request = buildUpdateServerRequest();
+        if (request == null) {
+            return null;
+        }
+        try {
+            return invoke(request, client::updateServer);
+        } finally {
+            describeServerResponses.clear();
+        }
+    }
+
+    /**
+     * @return milliseconds this client spent waiting for the rate limiter
+     */
+    public long getRateLimitWaitMillis() {
+        return rateLimitWaitMillis.get();
+    }
+
+    /**
+     * @return time this client waited for the rate limiter and the state of the buckets it drew from, null when it
+     * is not rate limited or made no call
+     */
+    public String getRateLimitSummary() {
+        if (rateLimiter.isUnlimited() || rateLimitedOperations.isEmpty()) {
+            return null;
+        }
+        final StringBuilder summary = new StringBuilder(String.format("Rate limit wait: %d ms", rateLimitWaitMillis.get()));
+        for (final String operation : new TreeSet<>(rateLimitedOperations)) {
+            final TokenBucket.Stats stats = rateLimiter.getStats(operation);
+            summary.append(String.format("; %s: %d acquisitions, %d delayed, %d ms total wait, %d ms max wait",
+                    operation, stats.getAcquisitions(), stats.getDelayedAcquisitions(), stats.getTotalWaitMillis(), stats.getMaxWaitMillis()));
+        }
+        return summary.toString();
+    }
+
+    /**
+     * @return nanoseconds the last call made by the current thread spent in the service, without rate limit waits
+     */
+    public long getLastCallNanos() {
+        return lastCallNanos.get();
+    }
+
+    private <RequestT extends AwsRequest, ResultT extends AwsResponse> ResultT invoke(final RequestT request,
+                                                                                     final Function<RequestT, ResultT> call) {
+        final String operation = operationName(request);
+        circuitBreaker.acquire();
+        rateLimitedOperations.add(operation);
+        final long waitMillis = rateLimiter.acquire(operation, remainingTimeMillis.getAsLong());
+        if (waitMillis > 0) {
+            rateLimitWaitMillis.addAndGet(waitMillis);
+            log.info(String.format("Waited %d ms for the %s rate limit.", waitMillis, operation));
+        }
+        final ResultT result;
+        final long start = System.nanoTime();
+        try {
+            result = proxy.injectCredentialsAndInvokeV2(request, call);
+        } catch (RuntimeException e) {
+            circuitBreaker.onError(e);
+            throw e;
+        } finally {
+            lastCallNanos.set(System.nanoTime() - start);
+        }
+        circuitBreaker.onSuccess();
+        return result;
+    }
+
+    private static String operationName(final AwsRequest request) {
+        final String requestName = request.getClass().getSimpleName();
+        return requestName.endsWith("Request") ? requestName.substring(0, requestName.length() - "Request".length()) : requestName;
+    }
+
+    private DescribeEventsRequest buildDescribeEventsRequest(String serverName, String nextToken) {
+        return DescribeEventsRequest.builder()
+                .serverName(serverName)
+                .nextToken(nextToken)
+                .build();
     }
 
     private DescribeServersRequest buildDescribeServerRequest(String serverName) {
@@ -90,8 +274,11 @@ public class ClientWrapper {
                 .resourceArn(resourceArn)
                 .build();
     }
-    private DescribeServersRequest buildDescribeAllServersRequest() {
-        return DescribeServersRequest.builder().build();
+    private DescribeServersRequest buildDescribeAllServersRequest(String nextToken, Integer maxResults) {
+        return DescribeServersRequest.builder()
+                .nextToken(nextToken)
+                .maxResults(maxResults)
+                .build();
     }
 
     private DeleteServerRequest buildDeleteServerRequest() {
@@ -144,24 +331,40 @@ public class ClientWrapper {
     }
 
     private UpdateServerRequest buildUpdateServerRequest() {
-        return UpdateServerRequest.builder()
-                .disableAutomatedBackup(model.getDisableAutomatedBackup())
-                .preferredBackupWindow(model.getPreferredBackupWindow())
-                .backupRetentionCount(model.getBackupRetentionCount())
-                .serverName(model.getServerName())
-                .preferredMaintenanceWindow(model.getPreferredMaintenanceWindow())
-                .build();
+        final UpdateServerRequest.Builder builder = UpdateServerRequest.builder().serverName(model.getServerName());
+        boolean hasUpdates = false;
+        if (isUpdated(ResourceModel::getDisableAutomatedBackup)) {
+            builder.disableAutomatedBackup(model.getDisableAutomatedBackup());
+            hasUpdates = true;
+        }
+        if (isUpdated(ResourceModel::getPreferredBackupWindow)) {
+            builder.preferredBackupWindow(model.getPreferredBackupWindow());
+            hasUpdates = true;
+        }
+        if (isUpdated(ResourceModel::getBackupRetentionCount)) {
+            builder.backupRetentionCount(model.getBackupRetentionCount());
+            hasUpdates = true;
+        }
+        if (isUpdated(ResourceModel::getPreferredMaintenanceWindow)) {
+            builder.preferredMaintenanceWindow(model.getPreferredMaintenanceWindow());
+            hasUpdates = true;
+        }
+        return hasUpdates ? builder.build() : null;
     }
 
-    private TagResourceRequest buildTagResourceRequest() {
-        if (model.getTags() == null) {
-            return null;
-        }
-        List<Tag> tagList = model.getTags().stream().map(t -> Tag.builder().key(t.getKey()).value(t.getValue()).build()).collect(Collectors.toList());
+    private <T> boolean isUpdated(final Function<ResourceModel, T> property) {
+        final T desired = property.apply(model);
+        return desired != null && (oldModel == null || !desired.equals(property.apply(oldModel)));
+    }
 
-        if (tagList.size() == 0) {
+    private TagResourceRequest buildTagResourceRequest() {
+        final Map<String, String> tagsToApply = getTagDiff().getTagsToApply();
+        if (tagsToApply.isEmpty()) {
             return null;
         }
+        final List<Tag> tagList = tagsToApply.entrySet().stream()
+                .map(t -> Tag.builder().key(t.getKey()).value(t.getValue()).build())
+                .collect(Collectors.toList());
 
         return TagResourceRequest.builder()
                 .tags(tagList)
@@ -170,34 +373,32 @@ public class ClientWrapper {
     }
 
     private UntagResourceRequest buildUntagResourceRequest() {
-        List<String> tagKeyDiff;
-        Stream<String> oldTags;
-        if (oldModel.getTags() == null) {
-            return null;
-        }
-
-        oldTags = oldModel.getTags().stream().map(t -> t.getKey());
-        if (model.getTags() == null) {
-            tagKeyDiff = oldTags.collect(Collectors.toList());
-        } else {
-            List<String> newTagKeys = model.getTags().stream().map(t -> t.getKey()).collect(Collectors.toList());
-            tagKeyDiff = oldTags.filter(k -> !newTagKeys.contains(k)).collect(Collectors.toList());
-        }
-
-        if (tagKeyDiff.size() == 0) {
+        final List<String> tagKeysToRemove = getTagDiff().getRemoved();
+        if (tagKeysToRemove.isEmpty()) {
             return null;
         }
 
         return UntagResourceRequest.builder()
-                .tagKeys(tagKeyDiff)
+                .tagKeys(tagKeysToRemove)
                 .resourceArn(getResourceArn())
                 .build();
     }
 
+    public TagDiff getTagDiff() {
+        if (tagDiff == null) {
+            tagDiff = TagDiff.between(oldModel == null ? null : oldModel.getTags(), model.getTags());
+        }
+        return tagDiff;
+    }
+
     private String getResourceArn() {
+        if (serverArn != null) {
+            return serverArn;
+        }
         DescribeServersResponse describeServersResponse = describeServer(model.getServerName());
         if (describeServersResponse != null && describeServersResponse.hasServers()) {
-            return describeServer(model.getServerName()).servers().get(0).serverArn();
+            serverArn = describeServersResponse.servers().get(0).serverArn();
+            return serverArn;
         }
         throw ResourceNotFoundException.builder().message(String.format("Server with name %s does not exist.", model.getServerName())).build();
     }
@@ -1,5 +1,6 @@
 package software.amazon.opsworkscm.server;
 
+import software.amazon.awssdk.services.opsworkscm.model.CreateServerResponse;
 import software.amazon.awssdk.services.opsworkscm.model.DescribeServersResponse;
 import software.amazon.awssdk.services.opsworkscm.model.InvalidStateException;
 import software.amazon.awssdk.services.opsworkscm.model.LimitExceededException;
@@ -26,6 +27,11 @@ import static software.amazon.opsworkscm.server.ResourceModel.IDENTIFIER_KEY_SER
 
 public class CreateHandler extends BaseOpsWorksCMHandler {
 
+    static final String OPERATION = "create";
+    static final int DEFAULT_STABILIZATION_TIMEOUT_MINUTES = 180;
+
+    PollingPolicy pollingPolicy = BackoffPollingPolicy.forCreate();
+
     @Override
     public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
             final AmazonWebServicesClientProxy proxy,
@@ -42,6 +48,8 @@ public class CreateHandler extends BaseOpsWorksCMHandler {
             } else {
                 return handleExecute(context);
             }
+        } catch (CircuitOpenException e) {
+            return waitForCircuit(context, serverName, e);
         } catch (ResourceAlreadyExistsException e) {
             log.info(String.format("Server %s already exists.", serverName));
             throw new CfnAlreadyExistsException(resourceTypeName, serverName);
@@ -55,6 +63,10 @@ public class CreateHandler extends BaseOpsWorksCMHandler {
             log.error(String.format("LimitExceededException during create-server for %s.", serverName), e);
             throw new CfnServiceLimitExceededException(resourceTypeName, e.getMessage());
         } catch (OpsWorksCmException e) {
+            // A 5xx from CreateServer may still have created the server, so only throttling is retried before stabilization
+            if (isThrottling(e) || (isTransientServiceError(e) && context.getCallbackContext().isStabilizationStarted())) {
+                return retryAfterServiceError(context, serverName, e);
+            }
             log.error(String.format("OpsWorksCmException during create-server for %s.", serverName), e);
             throw new CfnInvalidRequestException(e.getMessage(), e);
         } catch (Exception e) {
@@ -64,12 +76,20 @@ public class CreateHandler extends BaseOpsWorksCMHandler {
     }
 
     private ProgressEvent<ResourceModel, CallbackContext> handleExecute(InvocationContext context) {
-        client.createServer();
-        context.getCallbackContext().setStabilizationStarted(true);
-        return ProgressEvent.defaultInProgressHandler(context.getCallbackContext(), CALLBACK_DELAY_SECONDS, context.getModel());
+        final CreateServerResponse response = client.createServer();
+        resetServiceRetries(context.getCallbackContext());
+        if (response != null) {
+            recordServerState(context.getCallbackContext(), response.server());
+        }
+        startStabilization(context.getCallbackContext(), StabilizationStats.key(OPERATION, context.getModel()));
+        return ProgressEvent.defaultInProgressHandler(context.getCallbackContext(), getCallbackDelaySeconds(context.getCallbackContext(), context.getModel().getServerName(), null), callbackModel(context.getModel()));
     }
 
     private ProgressEvent<ResourceModel, CallbackContext> handleStabilize(InvocationContext context) {
+        return shortPollStabilization(context, this::checkStabilization, this::stabilizingCallbackDelaySeconds);
+    }
+
+    private ProgressEvent<ResourceModel, CallbackContext> checkStabilization(InvocationContext context) {
         final DescribeServersResponse result;
         ResourceModel model = context.getModel();
         CallbackContext callbackContext = context.getCallbackContext();
@@ -78,20 +98,23 @@ public class CreateHandler extends BaseOpsWorksCMHandler {
         callbackContext.incrementRetryTimes();
 
         try {
-            result = client.describeServer(model.getServerName());
+            result = describeForStabilization(context, model.getServerName());
         } catch (final ResourceNotFoundException e) {
             return handleServerNotFound(context, serverName);
         }
+        resetServiceRetries(callbackContext);
 
         if (result == null || result.servers() == null) {
             log.info("Describe result is Null. Retrying request.");
-            return ProgressEvent.defaultInProgressHandler(callbackContext, NO_CALLBACK_DELAY, model);
+            return ProgressEvent.defaultInProgressHandler(callbackContext, NO_CALLBACK_DELAY, callbackModel(model));
         }
 
         if (result.servers().size() < 1) {
             return handleServerNotFound(context, serverName);
         }
         Server server = result.servers().get(0);
+        final long previousCheckAt = callbackContext.getLastStatusObservedAt();
+        recordServerState(callbackContext, server);
 
         ServerStatus serverStatus = server.status();
         String statusReason = server.statusReason();
@@ -99,6 +122,7 @@ public class CreateHandler extends BaseOpsWorksCMHandler {
         switch (serverStatus) {
             case HEALTHY:
                 log.info(String.format("Server %s succeeded CREATE.", actualServerName));
+                recordStabilizationDuration(callbackContext, StabilizationStats.key(OPERATION, model), previousCheckAt);
                 List<Tag> tags = context.getRequest().getDesiredResourceState().getTags();
                 return ProgressEvent.defaultSuccessHandler(generateModelFromServer(server, tags));
             case BACKING_UP:
@@ -106,8 +130,13 @@ public class CreateHandler extends BaseOpsWorksCMHandler {
             case RESTORING:
             case UNDER_MAINTENANCE:
             case CREATING:
+                final int timeoutMinutes = stabilizationTimeoutMinutes(
+                        TypeConfigurationModel::getCreateStabilizationTimeoutMinutes, DEFAULT_STABILIZATION_TIMEOUT_MINUTES);
+                if (isPastStabilizationDeadline(callbackContext, timeoutMinutes)) {
+                    return stabilizationTimedOut(context, server, timeoutMinutes);
+                }
                 log.info(String.format("Server %s is still creating.", actualServerName));
-                return ProgressEvent.defaultInProgressHandler(callbackContext, CALLBACK_DELAY_SECONDS, model);
+                return stillStabilizing(context, server);
             default:
                 log.info(String.format("Server %s failed to CREATE because of reason: %s", actualServerName, statusReason));
                 return ProgressEvent.failed(
@@ -128,4 +157,18 @@ public class CreateHandler extends BaseOpsWorksCMHandler {
                 HandlerErrorCode.NotFound,
                 String.format("Server %s was deleted.", serverName));
     }
+
+    private int stabilizingCallbackDelaySeconds(final InvocationContext context) {
+        final CallbackContext callbackContext = context.getCallbackContext();
+        final String serverName = context.getModel().getServerName();
+        return eventAwareCallbackDelaySeconds(callbackContext, serverName,
+                getCallbackDelaySeconds(callbackContext, serverName, context.getStabilizingServer()));
+    }
+
+    private int getCallbackDelaySeconds(final CallbackContext callbackContext, final String serverName, final Server server) {
+        final int policyDelaySeconds = pollingPolicy.getCallbackDelaySeconds(
+                callbackContext.getStabilizationRetryTimes(), server == null ? null : server.status());
+        return scheduleCallbackSeconds(serverName, serviceWindowCallbackDelaySeconds(callbackContext, server,
+                predictedCallbackDelaySeconds(callbackContext, policyDelaySeconds)));
+    }
 }
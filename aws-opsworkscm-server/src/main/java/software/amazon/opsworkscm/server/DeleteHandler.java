@@ -16,12 +16,25 @@ import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 import static software.amazon.opsworkscm.server.ResourceModel.IDENTIFIER_KEY_SERVERNAME;
 
 public class DeleteHandler extends BaseOpsWorksCMHandler {
 
     public static final String SERVER_DELETION_FAILED_MESSAGE = "Server %s deletion has failed with reason: %s";
-    public static final String SERVER_OPERATION_STILL_IN_PROGRESS_MESSAGE = "Cannot delete the server '%s'. The current operation on the server is still in progress\\..*";
+    public static final Pattern SERVER_OPERATION_STILL_IN_PROGRESS_PATTERN = Pattern.compile(
+            "Cannot delete the server '(.*?)'\\. The current operation on the server is still in progress\\..*", Pattern.DOTALL);
+
+    static final String OPERATION = "delete";
+    static final int DEFAULT_STABILIZATION_TIMEOUT_MINUTES = 120;
+    static final int BUSY_SERVER_CALLBACK_DELAY_SECONDS = 15;
+    private static final Set<ServerStatus> BUSY_STATUSES = EnumSet.of(ServerStatus.BACKING_UP, ServerStatus.MODIFYING, ServerStatus.RESTORING);
+
+    PollingPolicy pollingPolicy = BackoffPollingPolicy.forDelete();
 
     @Override
     public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
@@ -40,6 +53,8 @@ public class DeleteHandler extends BaseOpsWorksCMHandler {
             } else {
                 return handleExecute(context);
             }
+        } catch (CircuitOpenException e) {
+            return waitForCircuit(context, serverName, e);
         } catch (InvalidStateException e) {
             log.error(String.format("Service Side failure during delete-server for %s.", serverName), e);
             throw new CfnNotStabilizedException(resourceTypeName, serverName);
@@ -47,9 +62,9 @@ public class DeleteHandler extends BaseOpsWorksCMHandler {
             return handleServerNotFound(context, serverName);
         } catch (ValidationException e) {
             log.error(String.format("ValidationException during delete-server of %s.", serverName), e);
-            if (e.getMessage().matches(String.format(SERVER_OPERATION_STILL_IN_PROGRESS_MESSAGE, serverName))) {
+            if (isOperationStillInProgress(e.getMessage(), serverName)) {
                 log.error(String.format("Server operation still in progress during delete-server of %s.", serverName));
-                return ProgressEvent.defaultInProgressHandler(context.getCallbackContext(), CALLBACK_DELAY_SECONDS, context.getModel());
+                return waitWhileBusy(context, serverName, "busy with another operation");
             }
             throw new CfnInvalidRequestException(e.getMessage(), e);
         } catch (Exception e) {
@@ -59,53 +74,140 @@ public class DeleteHandler extends BaseOpsWorksCMHandler {
     }
 
     private ProgressEvent<ResourceModel, CallbackContext> handleExecute(InvocationContext context) {
-        client.deleteServer();
-        context.getCallbackContext().setStabilizationStarted(true);
-        return ProgressEvent.defaultInProgressHandler(context.getCallbackContext(), CALLBACK_DELAY_SECONDS, context.getModel());
+        final String serverName = context.getModel().getServerName();
+        final Server server = describeBeforeDelete(serverName);
+        final ServerStatus serverStatus = server == null ? null : server.status();
+        if (BUSY_STATUSES.contains(serverStatus)) {
+            return waitWhileBusy(context, serverName, server.statusAsString());
+        }
+        if (serverStatus == ServerStatus.DELETING) {
+            log.info(String.format("Server %s is already being deleted.", serverName));
+        } else {
+            client.deleteServer();
+        }
+        startStabilization(context.getCallbackContext(), StabilizationStats.key(OPERATION, context.getModel()));
+        return ProgressEvent.defaultInProgressHandler(context.getCallbackContext(), getCallbackDelaySeconds(context.getCallbackContext(), context.getModel().getServerName(), null), callbackModel(context.getModel()));
+    }
+
+    /**
+     * Holds delete-server back while the server finishes its current operation, for no longer than the delete
+     * stabilization timeout counted from the first time it was found busy.
+     */
+    private ProgressEvent<ResourceModel, CallbackContext> waitWhileBusy(final InvocationContext context, final String serverName, final String state) {
+        final CallbackContext callbackContext = context.getCallbackContext();
+        final long now = clock.millis();
+        if (callbackContext.getBusyWaitStartTime() <= 0) {
+            callbackContext.setBusyWaitStartTime(now);
+        }
+        final int timeoutMinutes = stabilizationTimeoutMinutes(
+                TypeConfigurationModel::getDeleteStabilizationTimeoutMinutes, DEFAULT_STABILIZATION_TIMEOUT_MINUTES);
+        if (now - callbackContext.getBusyWaitStartTime() > timeoutMinutes * 60_000L) {
+            final String message = String.format("Server %s was still %s after %d minutes, delete-server was not called.", serverName, state, timeoutMinutes);
+            log.info(message);
+            return ProgressEvent.failed(context.getModel(), callbackContext, HandlerErrorCode.NotStabilized, message);
+        }
+        log.info(String.format("Server %s is %s, waiting before delete-server.", serverName, state));
+        return ProgressEvent.defaultInProgressHandler(callbackContext, scheduleCallbackSeconds(serverName, BUSY_SERVER_CALLBACK_DELAY_SECONDS), callbackModel(context.getModel()));
+    }
+
+    /**
+     * Reads the current status so a delete that is already running is not requested again and a busy server is
+     * waited on instead of rejected. Any failure other than a missing server or an open circuit falls back to calling delete-server.
+     */
+    private Server describeBeforeDelete(final String serverName) {
+        final DescribeServersResponse response;
+        try {
+            response = client.describeServer(serverName);
+        } catch (ResourceNotFoundException | CircuitOpenException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            log.info(String.format("Could not read the status of %s before delete-server: %s", serverName, e.getMessage()));
+            return null;
+        }
+        if (response == null || !response.hasServers() || response.servers().isEmpty()) {
+            return null;
+        }
+        return response.servers().get(0);
+    }
+
+    static boolean isOperationStillInProgress(final String message, final String serverName) {
+        if (message == null) {
+            return false;
+        }
+        final Matcher matcher = SERVER_OPERATION_STILL_IN_PROGRESS_PATTERN.matcher(message);
+        return matcher.matches() && matcher.group(1).equals(serverName);
     }
 
     private ProgressEvent<ResourceModel, CallbackContext> handleStabilize(InvocationContext context) {
+        return shortPollStabilization(context, this::checkStabilization, this::stabilizingCallbackDelaySeconds);
+    }
+
+    private ProgressEvent<ResourceModel, CallbackContext> checkStabilization(InvocationContext context) {
         final DescribeServersResponse result;
         ResourceModel model = context.getModel();
         CallbackContext callbackContext = context.getCallbackContext();
         String serverName = model.getPrimaryIdentifier().get(IDENTIFIER_KEY_SERVERNAME).toString();
         callbackContext.incrementRetryTimes();
 
-        result = client.describeServer(serverName);
+        result = describeForStabilization(context, serverName);
 
         if (result == null || result.servers() == null) {
             log.info("Describe result is Null. Retrying request.");
-            return ProgressEvent.defaultInProgressHandler(callbackContext, NO_CALLBACK_DELAY, model);
+            return ProgressEvent.defaultInProgressHandler(callbackContext, NO_CALLBACK_DELAY, callbackModel(model));
         }
 
         if (result.servers().size() < 1) {
             return handleServerNotFound(context, serverName);
         }
         Server server = result.servers().get(0);
+        recordServerState(callbackContext, server);
 
         ServerStatus serverStatus = server.status();
         String statusReason = server.statusReason();
         String actualServerName = server.serverName();
 
+        if (serverStatus != ServerStatus.FAILED) {
+            final int timeoutMinutes = stabilizationTimeoutMinutes(
+                    TypeConfigurationModel::getDeleteStabilizationTimeoutMinutes, DEFAULT_STABILIZATION_TIMEOUT_MINUTES);
+            if (isPastStabilizationDeadline(callbackContext, timeoutMinutes)) {
+                return stabilizationTimedOut(context, server, timeoutMinutes);
+            }
+        }
+
         switch (serverStatus) {
             case DELETING:
-                return ProgressEvent.defaultInProgressHandler(callbackContext, CALLBACK_DELAY_SECONDS, model);
+                return stillStabilizing(context, server);
             case FAILED:
                 log.info(String.format(SERVER_DELETION_FAILED_MESSAGE, actualServerName, statusReason));
                 return ProgressEvent.failed(model, callbackContext, HandlerErrorCode.NotUpdatable, String.format(SERVER_DELETION_FAILED_MESSAGE, actualServerName, statusReason));
             default:
                 log.info(String.format("Server %s is in an unexpected state. Server should be deleted, but is %s. With reason: %s",
                         actualServerName, serverStatus, statusReason));
-                return ProgressEvent.defaultInProgressHandler(callbackContext, CALLBACK_DELAY_SECONDS, model);
+                return stillStabilizing(context, server);
         }
     }
 
     private ProgressEvent<ResourceModel, CallbackContext> handleServerNotFound(InvocationContext context, final String serverName) {
         if (context.getCallbackContext().isStabilizationStarted()) {
             log.info(String.format("Server %s deleted successfully.", serverName));
+            recordStabilizationDuration(context.getCallbackContext(), StabilizationStats.key(OPERATION, context.getModel()),
+                    context.getCallbackContext().getLastStatusObservedAt());
             return ProgressEvent.defaultSuccessHandler(context.getModel());
         }
         //The CFN team demands this behaviour in their contract tests
         throw new CfnNotFoundException(resourceTypeName, serverName);
     }
+
+    private int stabilizingCallbackDelaySeconds(final InvocationContext context) {
+        final CallbackContext callbackContext = context.getCallbackContext();
+        final String serverName = context.getModel().getServerName();
+        final ServerStatus serverStatus = context.getStabilizingServer().status();
+        final int delaySeconds = getCallbackDelaySeconds(callbackContext, serverName, serverStatus);
+        return serverStatus == ServerStatus.DELETING ? eventAwareCallbackDelaySeconds(callbackContext, serverName, delaySeconds) : delaySeconds;
+    }
+
+    private int getCallbackDelaySeconds(final CallbackContext callbackContext, final String serverName, final ServerStatus serverStatus) {
+        return scheduleCallbackSeconds(serverName, predictedCallbackDelaySeconds(callbackContext,
+                pollingPolicy.getCallbackDelaySeconds(callbackContext.getStabilizationRetryTimes(), serverStatus)));
+    }
 }
@@ -1,6 +1,7 @@
 package software.amazon.opsworkscm.server;
 
 import lombok.Data;
+import software.amazon.awssdk.services.opsworkscm.model.Server;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 import software.amazon.opsworkscm.server.utils.LoggerWrapper;
 
@@ -10,4 +11,8 @@ public class InvocationContext {
     ResourceModel oldModel;
     CallbackContext callbackContext;
     ResourceHandlerRequest<ResourceModel> request;
+    long invocationStartTime;
+    long invocationTimeBudgetMillis;
+    // Last server seen by a stabilization check that is still in progress
+    Server stabilizingServer;
 }
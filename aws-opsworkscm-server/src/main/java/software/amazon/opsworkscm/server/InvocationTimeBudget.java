@@ -0,0 +1,51 @@
+package software.amazon.opsworkscm.server;
+
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+
+import java.lang.reflect.Field;
+import java.util.function.Supplier;
+
+/**
+ * Time left in the current Lambda invocation. Handlers never see the Lambda context: the wrapper only hands its
+ * remaining time to the {@link AmazonWebServicesClientProxy}, which keeps it private. It is read from there when
+ * the proxy has it, and the given fallback is used otherwise.
+ */
+final class InvocationTimeBudget {
+
+    private static final Field REMAINING_TIME = findRemainingTimeField();
+
+    private InvocationTimeBudget() {
+    }
+
+    static long remainingMillis(final AmazonWebServicesClientProxy proxy, final long fallbackMillis) {
+        if (proxy == null || REMAINING_TIME == null) {
+            return fallbackMillis;
+        }
+        try {
+            final Object supplier = REMAINING_TIME.get(proxy);
+            if (supplier instanceof Supplier) {
+                final Object remaining = ((Supplier<?>) supplier).get();
+                if (remaining instanceof Number) {
+                    return Math.max(0L, ((Number) remaining).longValue());
+                }
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Use the fallback budget
+        }
+        return fallbackMillis;
+    }
+
+    private static Field findRemainingTimeField() {
+        for (final Field field : AmazonWebServicesClientProxy.class.getDeclaredFields()) {
+            if (Supplier.class.equals(field.getType())) {
+                try {
+                    field.setAccessible(true);
+                    return field;
+                } catch (RuntimeException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+}
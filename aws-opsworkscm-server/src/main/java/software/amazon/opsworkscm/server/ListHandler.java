@@ -1,25 +1,32 @@
 package software.amazon.opsworkscm.server;
 
+import com.amazonaws.util.StringUtils;
 import software.amazon.awssdk.services.opsworkscm.OpsWorksCmClient;
 import software.amazon.awssdk.services.opsworkscm.model.DescribeServersResponse;
 import software.amazon.awssdk.services.opsworkscm.model.Server;
+import software.amazon.awssdk.services.resourcegroupstaggingapi.ResourceGroupsTaggingApiClient;
+import software.amazon.cloudformation.exceptions.CfnServiceInternalErrorException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.opsworkscm.server.utils.AdaptiveConcurrencyLimiter;
 import software.amazon.opsworkscm.server.utils.LoggerWrapper;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class ListHandler extends BaseOpsWorksCMHandler {
 
     private static final int NO_CALLBACK_DELAY = 0;
+    static final int MAX_RESULTS_PER_PAGE = 20;
+    private static final int INITIAL_TAG_REQUEST_CONCURRENCY = 2;
+    private static final int MAX_TAG_REQUEST_CONCURRENCY = 10;
 
-    LoggerWrapper log;
-    ClientWrapper client;
+    ServerTagSource tagSource;
 
     @Override
     public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
@@ -30,12 +37,27 @@ public class ListHandler extends BaseOpsWorksCMHandler {
 
         this.log = new LoggerWrapper(logger);
 
-        final OpsWorksCmClient opsWorksCmClient = ClientBuilder.getClient();
-        this.client = new ClientWrapper(opsWorksCmClient, request.getDesiredResourceState(), request.getPreviousResourceState(), proxy, log);
+        final OpsWorksCmClient opsWorksCmClient = getOpsWorksCmClient(request);
+        this.client = new ClientWrapper(opsWorksCmClient, request.getDesiredResourceState(), request.getPreviousResourceState(), proxy, log, getRateLimiter(request), getCircuitBreaker(request));
+        final long invocationDeadline = clock.millis() + InvocationTimeBudget.remainingMillis(proxy, INVOCATION_TIME_BUDGET_MILLIS);
+        this.client.setRemainingTimeMillis(() -> invocationDeadline - clock.millis());
+        this.tagSource = new BulkServerTagSource(() -> getTaggingClient(request), client,
+                new PerServerTagSource(client, new AdaptiveConcurrencyLimiter(
+                        INITIAL_TAG_REQUEST_CONCURRENCY, 1, MAX_TAG_REQUEST_CONCURRENCY, BaseOpsWorksCMHandler::isThrottling, client::getLastCallNanos)), log);
 
-        log.info("Calling Describe Servers with no ServerName");
+        try {
+            return listServers(request, callbackContext);
+        } catch (final CircuitOpenException e) {
+            log.error(String.format("Not calling OpsWorks CM: %s", e.getMessage()));
+            throw new CfnServiceInternalErrorException(e);
+        }
+    }
 
-        DescribeServersResponse result = client.describeAllServers();
+    private ProgressEvent<ResourceModel, CallbackContext> listServers(final ResourceHandlerRequest<ResourceModel> request,
+                                                                      final CallbackContext callbackContext) {
+        log.info(String.format("Calling Describe Servers with no ServerName and NextToken %s", request.getNextToken()));
+
+        DescribeServersResponse result = client.describeAllServers(request.getNextToken(), MAX_RESULTS_PER_PAGE);
         if (result == null || result.servers() == null) {
             log.info("Describe result is Null. Retrying request.");
             return ProgressEvent.defaultInProgressHandler(callbackContext, NO_CALLBACK_DELAY, request.getDesiredResourceState());
@@ -44,6 +66,7 @@ public class ListHandler extends BaseOpsWorksCMHandler {
         List<ResourceModel> models = addDescribeServersResponseAttributes(result);
         return ProgressEvent.<ResourceModel, CallbackContext>builder()
                 .resourceModels(models)
+                .nextToken(result.nextToken())
                 .status(OperationStatus.SUCCESS)
                 .build();
     }
@@ -52,11 +75,17 @@ public class ListHandler extends BaseOpsWorksCMHandler {
     private List<ResourceModel> addDescribeServersResponseAttributes(final DescribeServersResponse response) {
         List<ResourceModel> models = new ArrayList<>();
         List<Server> servers = response.hasServers() ? response.servers() : new ArrayList<>();
-        servers.forEach(server -> {
-            List<Tag> tags = client.listServerTags(server.serverArn()).tags().stream()
-                    .map(tag -> Tag.builder().key(tag.key()).value(tag.value()).build()).collect(Collectors.toList());
-            models.add(generateModelFromServer(server, tags));
-        });
+        Map<String, List<Tag>> serverTags = tagSource.getTags(servers.stream().map(Server::serverArn).collect(Collectors.toList()));
+        for (Server server : servers) {
+            models.add(generateModelFromServer(server, serverTags.get(server.serverArn())));
+        }
         return models;
     }
+
+    private static ResourceGroupsTaggingApiClient getTaggingClient(final ResourceHandlerRequest<ResourceModel> request) {
+        if (StringUtils.isNullOrEmpty(request.getRegion())) {
+            return ClientBuilder.getTaggingClient();
+        }
+        return ClientBuilder.getTaggingClient(request.getRegion());
+    }
 }
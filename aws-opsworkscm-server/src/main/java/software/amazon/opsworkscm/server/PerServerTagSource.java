@@ -0,0 +1,38 @@
+package software.amazon.opsworkscm.server;
+
+import software.amazon.opsworkscm.server.utils.AdaptiveConcurrencyLimiter;
+import software.amazon.opsworkscm.server.utils.ParallelFanOut;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Calls ListTagsForResource once per server, with the number of calls in flight adapted to throttling and latency.
+ */
+public class PerServerTagSource implements ServerTagSource {
+
+    private final ClientWrapper client;
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public PerServerTagSource(final ClientWrapper client, final AdaptiveConcurrencyLimiter limiter) {
+        this.client = client;
+        this.limiter = limiter;
+    }
+
+    @Override
+    public Map<String, List<Tag>> getTags(final List<String> serverArns) {
+        final List<List<Tag>> tags = ParallelFanOut.map(serverArns, this::listTags, limiter);
+        final Map<String, List<Tag>> tagsByArn = new LinkedHashMap<>();
+        for (int i = 0; i < serverArns.size(); i++) {
+            tagsByArn.put(serverArns.get(i), tags.get(i));
+        }
+        return tagsByArn;
+    }
+
+    private List<Tag> listTags(final String serverArn) {
+        return client.listServerTags(serverArn).tags().stream()
+                .map(tag -> Tag.builder().key(tag.key()).value(tag.value()).build()).collect(Collectors.toList());
+    }
+}
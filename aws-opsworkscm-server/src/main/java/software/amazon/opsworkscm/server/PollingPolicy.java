@@ -0,0 +1,15 @@
+package software.amazon.opsworkscm.server;
+
+import software.amazon.awssdk.services.opsworkscm.model.ServerStatus;
+
+/**
+ * Chooses how long CloudFormation waits before the next stabilization callback.
+ */
+public interface PollingPolicy {
+
+    /**
+     * @param attempt number of stabilization checks done so far, 0 right after the mutating call
+     * @param status  last observed server status, null right after the mutating call
+     */
+    int getCallbackDelaySeconds(int attempt, ServerStatus status);
+}
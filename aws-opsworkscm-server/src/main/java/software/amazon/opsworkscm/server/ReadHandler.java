@@ -4,6 +4,8 @@ import software.amazon.awssdk.services.opsworkscm.model.OpsWorksCmException;
 import software.amazon.cloudformation.exceptions.CfnGeneralServiceException;
 import software.amazon.cloudformation.exceptions.CfnInternalFailureException;
 import software.amazon.cloudformation.exceptions.CfnNotFoundException;
+import software.amazon.cloudformation.exceptions.CfnServiceInternalErrorException;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
@@ -29,10 +31,21 @@ public class ReadHandler extends BaseOpsWorksCMHandler {
 
         try {
             return ProgressEvent.defaultSuccessHandler(generateModel(context));
+        } catch (final CircuitOpenException e) {
+            log.error(String.format("Not calling DescribeServers for %s: %s", serverName, e.getMessage()));
+            throw new CfnServiceInternalErrorException(e);
         } catch (final software.amazon.awssdk.services.opsworkscm.model.ResourceNotFoundException e) {
             log.error(String.format("Server %s was not found.", serverName), e);
             throw new CfnNotFoundException(e);
         } catch (final OpsWorksCmException e) {
+            if (isThrottling(e)) {
+                log.error(String.format("DescribeServers for %s was throttled.", serverName), e);
+                throw new CfnThrottlingException(e);
+            }
+            if (isTransientServiceError(e)) {
+                log.error(String.format("DescribeServers for %s failed on the service side.", serverName), e);
+                throw new CfnServiceInternalErrorException(e);
+            }
             log.error(String.format("Server %s was not found.", serverName), e);
             throw new CfnGeneralServiceException(e.getMessage());
         } catch (Exception e) {
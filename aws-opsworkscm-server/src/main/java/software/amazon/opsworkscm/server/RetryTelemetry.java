@@ -0,0 +1,75 @@
+package software.amazon.opsworkscm.server;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SDK retry counters and time budget of the handler invocation in progress. A Lambda container runs one invocation
+ * at a time, so the SDK retry policy of the pooled clients reads them from {@link #current()}, including from the
+ * threads of a fan-out.
+ */
+public class RetryTelemetry {
+
+    private static volatile RetryTelemetry current = new RetryTelemetry(Clock.systemUTC(), Long.MAX_VALUE);
+
+    private final Clock clock;
+    private final long deadlineMillis;
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder throttles = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder backoffMillis = new LongAdder();
+
+    RetryTelemetry(final Clock clock, final long deadlineMillis) {
+        this.clock = clock;
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    public static RetryTelemetry startInvocation(final Clock clock, final long deadlineMillis) {
+        current = new RetryTelemetry(clock, deadlineMillis);
+        return current;
+    }
+
+    public static RetryTelemetry current() {
+        return current;
+    }
+
+    public long remainingMillis() {
+        return deadlineMillis == Long.MAX_VALUE ? Long.MAX_VALUE : deadlineMillis - clock.millis();
+    }
+
+    void recordAttempt(final boolean throttled, final boolean retried) {
+        attempts.increment();
+        if (throttled) {
+            throttles.increment();
+        }
+        if (retried) {
+            retries.increment();
+        }
+    }
+
+    void recordBackoff(final long millis) {
+        backoffMillis.add(millis);
+    }
+
+    public long getAttempts() {
+        return attempts.sum();
+    }
+
+    public long getThrottles() {
+        return throttles.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    public long getBackoffMillis() {
+        return backoffMillis.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SDK calls: %d attempts, %d throttled, %d retried, %d ms backoff",
+                getAttempts(), getThrottles(), getRetries(), getBackoffMillis());
+    }
+}
@@ -0,0 +1,126 @@
+package software.amazon.opsworkscm.server;
+
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.core.retry.RetryPolicyContext;
+import software.amazon.awssdk.core.retry.RetryUtils;
+import software.amazon.awssdk.core.retry.backoff.BackoffStrategy;
+import software.amazon.awssdk.core.retry.conditions.RetryCondition;
+import software.amazon.awssdk.services.opsworkscm.model.CreateServerRequest;
+import software.amazon.awssdk.services.opsworkscm.model.DeleteServerRequest;
+import software.amazon.awssdk.services.opsworkscm.model.UpdateServerRequest;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Retry policy of the pooled SDK clients. Reads such as DescribeServers are retried on throttling, 5xx and network
+ * errors; mutations such as CreateServer only on throttling, where the service is known not to have acted, and
+ * fewer times. Backoff is full jitter and never runs past the time the invocation has left.
+ */
+public final class SdkRetryPolicy {
+
+    static final int MAX_RETRIES = 4;
+    static final int MUTATION_MAX_RETRIES = 2;
+    static final Duration BASE_DELAY = Duration.ofMillis(100);
+    static final Duration THROTTLING_BASE_DELAY = Duration.ofMillis(500);
+    static final Duration MAX_BACKOFF = Duration.ofSeconds(10);
+    // Time kept for the handler to act on the outcome of its last attempt
+    static final long INVOCATION_TIME_RESERVE_MILLIS = 5_000L;
+
+    private SdkRetryPolicy() {
+    }
+
+    public static RetryPolicy create() {
+        return RetryPolicy.builder()
+                .numRetries(MAX_RETRIES)
+                .retryCondition(new OperationRetryCondition(RetryTelemetry::current))
+                .backoffStrategy(new DeadlineAwareFullJitterBackoff(BASE_DELAY, RetryTelemetry::current, SdkRetryPolicy::jitter))
+                .throttlingBackoffStrategy(new DeadlineAwareFullJitterBackoff(THROTTLING_BASE_DELAY, RetryTelemetry::current, SdkRetryPolicy::jitter))
+                .build();
+    }
+
+    static boolean isMutation(final SdkRequest request) {
+        return request instanceof CreateServerRequest
+                || request instanceof UpdateServerRequest
+                || request instanceof DeleteServerRequest;
+    }
+
+    private static long jitter(final long ceilingMillis) {
+        return ThreadLocalRandom.current().nextLong(ceilingMillis + 1);
+    }
+
+    static class OperationRetryCondition implements RetryCondition {
+
+        private static final RetryCondition DEFAULT_CONDITION = RetryCondition.defaultRetryCondition();
+
+        private final Supplier<RetryTelemetry> telemetry;
+
+        OperationRetryCondition(final Supplier<RetryTelemetry> telemetry) {
+            this.telemetry = telemetry;
+        }
+
+        @Override
+        public boolean shouldRetry(final RetryPolicyContext context) {
+            final boolean retry = isRetryable(context);
+            if (retry) {
+                telemetry.get().recordAttempt(isThrottling(context), true);
+            }
+            return retry;
+        }
+
+        @Override
+        public void requestWillNotBeRetried(final RetryPolicyContext context) {
+            telemetry.get().recordAttempt(isThrottling(context), false);
+        }
+
+        @Override
+        public void requestSucceeded(final RetryPolicyContext context) {
+            telemetry.get().recordAttempt(false, false);
+        }
+
+        private boolean isRetryable(final RetryPolicyContext context) {
+            final boolean mutation = isMutation(context.originalRequest());
+            if (context.retriesAttempted() >= (mutation ? MUTATION_MAX_RETRIES : MAX_RETRIES)) {
+                return false;
+            }
+            if (telemetry.get().remainingMillis() <= INVOCATION_TIME_RESERVE_MILLIS) {
+                return false;
+            }
+            if (isThrottling(context)) {
+                return true;
+            }
+            return !mutation && DEFAULT_CONDITION.shouldRetry(context);
+        }
+
+        private static boolean isThrottling(final RetryPolicyContext context) {
+            return context.exception() != null && RetryUtils.isThrottlingException(context.exception());
+        }
+    }
+
+    static class DeadlineAwareFullJitterBackoff implements BackoffStrategy {
+
+        private final long baseDelayMillis;
+        private final Supplier<RetryTelemetry> telemetry;
+        private final LongUnaryOperator jitter;
+
+        DeadlineAwareFullJitterBackoff(final Duration baseDelay, final Supplier<RetryTelemetry> telemetry, final LongUnaryOperator jitter) {
+            this.baseDelayMillis = baseDelay.toMillis();
+            this.telemetry = telemetry;
+            this.jitter = jitter;
+        }
+
+        @Override
+        public Duration computeDelayBeforeNextRetry(final RetryPolicyContext context) {
+            final int exponent = Math.min(Math.max(context.retriesAttempted(), 0), 20);
+            final long ceiling = Math.min(MAX_BACKOFF.toMillis(), baseDelayMillis << exponent);
+            final RetryTelemetry current = telemetry.get();
+            final long budget = current.remainingMillis() - INVOCATION_TIME_RESERVE_MILLIS;
+            final long delay = Math.max(0L, Math.min(jitter.applyAsLong(ceiling), budget));
+            current.recordBackoff(delay);
+            return Duration.ofMillis(delay);
+        }
+    }
+}
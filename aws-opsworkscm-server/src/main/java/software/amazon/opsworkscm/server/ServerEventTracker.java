@@ -0,0 +1,77 @@
+package software.amazon.opsworkscm.server;
+
+import software.amazon.awssdk.services.opsworkscm.model.DescribeEventsResponse;
+import software.amazon.awssdk.services.opsworkscm.model.ServerEvent;
+import software.amazon.opsworkscm.server.utils.LoggerWrapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the DescribeEvents stream of a server incrementally. DescribeEvents returns the newest events first, so a
+ * scan stops at the first event that was already seen. The newest event already seen and, when a scan runs
+ * out of pages, the cursor to resume it and the newest event it has reported are kept in the callback context, so
+ * each poll only fetches new events. Event lookups are best effort: failures are logged and treated as no new
+ * events.
+ */
+public class ServerEventTracker {
+
+    static final int MAX_PAGES_PER_POLL = 3;
+    private static final Pattern FAILURE_EVENT_PATTERN = Pattern.compile("\\b(fail|failed|failure)\\b", Pattern.CASE_INSENSITIVE);
+
+    private final ClientWrapper client;
+    private final LoggerWrapper log;
+
+    public ServerEventTracker(final ClientWrapper client, final LoggerWrapper log) {
+        this.client = client;
+        this.log = log;
+    }
+
+    public List<ServerEvent> fetchNewEvents(final CallbackContext callbackContext, final String serverName) {
+        final List<ServerEvent> newEvents = new ArrayList<>();
+        final long lastSeen = callbackContext.getLastEventTimestamp();
+        long newest = Math.max(lastSeen, callbackContext.getPendingEventTimestamp());
+        String nextToken = callbackContext.getEventsNextToken();
+        try {
+            for (int page = 0; page < MAX_PAGES_PER_POLL; page++) {
+                final DescribeEventsResponse response = client.describeEvents(serverName, nextToken);
+                if (response == null) {
+                    nextToken = null;
+                    break;
+                }
+                boolean reachedSeenEvent = false;
+                for (final ServerEvent event : response.serverEvents()) {
+                    final long createdAt = event.createdAt() == null ? 0L : event.createdAt().toEpochMilli();
+                    if (createdAt <= lastSeen) {
+                        reachedSeenEvent = true;
+                        continue;
+                    }
+                    newEvents.add(event);
+                    newest = Math.max(newest, createdAt);
+                }
+                nextToken = reachedSeenEvent ? null : response.nextToken();
+                if (nextToken == null || nextToken.isEmpty()) {
+                    nextToken = null;
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error(String.format("Could not describe events of server %s.", serverName), e);
+            return newEvents;
+        }
+
+        callbackContext.setEventsNextToken(nextToken);
+        if (nextToken == null) {
+            callbackContext.setLastEventTimestamp(newest);
+            callbackContext.setPendingEventTimestamp(0L);
+        } else {
+            callbackContext.setPendingEventTimestamp(newest);
+        }
+        return newEvents;
+    }
+
+    public static boolean isFailureEvent(final ServerEvent event) {
+        return event.message() != null && FAILURE_EVENT_PATTERN.matcher(event.message()).find();
+    }
+}
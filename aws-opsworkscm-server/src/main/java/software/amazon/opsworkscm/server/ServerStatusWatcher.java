@@ -0,0 +1,135 @@
+package software.amazon.opsworkscm.server;
+
+import software.amazon.awssdk.services.opsworkscm.model.DescribeServersResponse;
+import software.amazon.awssdk.services.opsworkscm.model.Server;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serves stabilization polls of a warm container from one shared DescribeServers snapshot. Snapshots are shared per
+ * account, region and stack, so only polls made under the same stack's role see what that role listed. The snapshot
+ * is only used while the container is polling a herd of servers; a single stabilizing server keeps describing
+ * itself, which is cheaper than listing the account. Servers missing from the snapshot, or created after it was
+ * taken, are always described directly. One caller refreshes a stale snapshot while the others wait for its result
+ * without holding the watcher lock.
+ */
+public class ServerStatusWatcher {
+
+    static final int HERD_SIZE = 3;
+    static final long HERD_WINDOW_MILLIS = 120_000L;
+    static final long MAX_SNAPSHOT_AGE_MILLIS = 5_000L;
+    private static final int MAX_SNAPSHOT_PAGES = 10;
+
+    private static final ConcurrentMap<String, ServerStatusWatcher> WATCHERS = new ConcurrentHashMap<>();
+
+    // Guarded by this
+    private final Map<String, Long> lastPolledAt = new HashMap<>();
+    private volatile Snapshot snapshot;
+    private final AtomicReference<CompletableFuture<Snapshot>> refresh = new AtomicReference<>();
+
+    public static ServerStatusWatcher forStack(final String accountId, final String region, final String stackId) {
+        return WATCHERS.computeIfAbsent(accountId + "|" + region + "|" + stackId, key -> new ServerStatusWatcher());
+    }
+
+    /**
+     * @param notBefore snapshots taken before this time cannot answer for the server
+     */
+    public DescribeServersResponse describeServer(final ClientWrapper client, final String serverName,
+                                                  final long notBefore, final long now) {
+        if (!recordPoll(serverName, now)) {
+            return client.refreshServer(serverName);
+        }
+
+        Snapshot current = snapshot;
+        if (isStale(current, now)) {
+            current = refreshSnapshot(client, now);
+        }
+        // A failed refresh hands back the previous snapshot, which is too old to answer for the server
+        if (isStale(current, now) || current.takenAt < notBefore) {
+            return client.refreshServer(serverName);
+        }
+        final Server server = current.servers.get(serverName);
+        if (server == null) {
+            return client.refreshServer(serverName);
+        }
+        return DescribeServersResponse.builder().servers(server).build();
+    }
+
+    private static boolean isStale(final Snapshot snapshot, final long now) {
+        return snapshot == null || now - snapshot.takenAt > MAX_SNAPSHOT_AGE_MILLIS;
+    }
+
+    /**
+     * @return whether the container is polling a herd of servers
+     */
+    private synchronized boolean recordPoll(final String serverName, final long now) {
+        lastPolledAt.put(serverName, now);
+        final Iterator<Long> polls = lastPolledAt.values().iterator();
+        while (polls.hasNext()) {
+            if (now - polls.next() > HERD_WINDOW_MILLIS) {
+                polls.remove();
+            }
+        }
+        return lastPolledAt.size() >= HERD_SIZE;
+    }
+
+    private Snapshot refreshSnapshot(final ClientWrapper client, final long now) {
+        final CompletableFuture<Snapshot> running = refresh.get();
+        if (running != null) {
+            return running.join();
+        }
+        final CompletableFuture<Snapshot> mine = new CompletableFuture<>();
+        if (!refresh.compareAndSet(null, mine)) {
+            final CompletableFuture<Snapshot> other = refresh.get();
+            return other == null ? snapshot : other.join();
+        }
+        try {
+            final Snapshot fetched = fetchSnapshot(client, now);
+            if (fetched != null) {
+                snapshot = fetched;
+            }
+        } finally {
+            refresh.set(null);
+            mine.complete(snapshot);
+        }
+        return mine.join();
+    }
+
+    private static Snapshot fetchSnapshot(final ClientWrapper client, final long now) {
+        final Map<String, Server> servers = new HashMap<>();
+        String nextToken = null;
+        try {
+            for (int page = 0; page < MAX_SNAPSHOT_PAGES; page++) {
+                final DescribeServersResponse response = client.describeAllServers(nextToken, null);
+                if (response == null) {
+                    return null;
+                }
+                response.servers().forEach(server -> servers.put(server.serverName(), server));
+                nextToken = response.nextToken();
+                if (nextToken == null) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            // Keep the previous snapshot, callers fall back to describing their own server
+            return null;
+        }
+        return new Snapshot(servers, now);
+    }
+
+    private static class Snapshot {
+        private final Map<String, Server> servers;
+        private final long takenAt;
+
+        Snapshot(final Map<String, Server> servers, final long takenAt) {
+            this.servers = servers;
+            this.takenAt = takenAt;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package software.amazon.opsworkscm.server;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Looks up the tags of a set of servers. Every requested ARN is present in the result, servers without tags map
+ * to an empty list.
+ */
+public interface ServerTagSource {
+
+    Map<String, List<Tag>> getTags(List<String> serverArns);
+}
@@ -0,0 +1,101 @@
+package software.amazon.opsworkscm.server;
+
+import software.amazon.awssdk.services.opsworkscm.model.ServerStatus;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Estimates when a maintenance run or backup ends. OpsWorks CM starts both in a one-hour UTC window
+ * ({@code DDD:HH:MM} weekly or {@code HH:MM} daily). A run that started inside its window is expected to last until
+ * the window closes; a run that started outside it (for example the one right after creation) is expected to take a
+ * typical duration from the time the status was first seen. An estimate in the past means the run is overdue.
+ */
+public final class ServiceWindowEstimator {
+
+    static final Duration WINDOW_LENGTH = Duration.ofHours(1);
+    static final Duration TYPICAL_MAINTENANCE = Duration.ofMinutes(30);
+    static final Duration TYPICAL_BACKUP = Duration.ofMinutes(15);
+
+    private static final Pattern WINDOW_PATTERN = Pattern.compile("^(?:([A-Za-z]{3}):)?(\\d{2}):(\\d{2})$");
+
+    private ServiceWindowEstimator() {
+    }
+
+    /**
+     * @return the estimated end of the run in epoch millis, or 0 if the status is not a maintenance or backup run
+     */
+    public static long estimateEndMillis(final ServerStatus status,
+                                         final String preferredMaintenanceWindow,
+                                         final String preferredBackupWindow,
+                                         final long statusEnteredAt,
+                                         final long now) {
+        final String window;
+        final Duration typical;
+        if (status == ServerStatus.UNDER_MAINTENANCE) {
+            window = preferredMaintenanceWindow;
+            typical = TYPICAL_MAINTENANCE;
+        } else if (status == ServerStatus.BACKING_UP) {
+            window = preferredBackupWindow;
+            typical = TYPICAL_BACKUP;
+        } else {
+            return 0L;
+        }
+
+        final long enteredAt = statusEnteredAt > 0 ? statusEnteredAt : now;
+        final ZonedDateTime windowStart = lastWindowStart(window, enteredAt);
+        if (windowStart != null) {
+            final long windowEnd = windowStart.plus(WINDOW_LENGTH).toInstant().toEpochMilli();
+            if (enteredAt < windowEnd) {
+                return windowEnd;
+            }
+        }
+        return enteredAt + typical.toMillis();
+    }
+
+    private static ZonedDateTime lastWindowStart(final String window, final long at) {
+        if (window == null) {
+            return null;
+        }
+        final Matcher matcher = WINDOW_PATTERN.matcher(window.trim());
+        if (!matcher.matches()) {
+            return null;
+        }
+        final int hour = Integer.parseInt(matcher.group(2));
+        final int minute = Integer.parseInt(matcher.group(3));
+        if (hour > 23 || minute > 59) {
+            return null;
+        }
+        final ZonedDateTime current = Instant.ofEpochMilli(at).atZone(ZoneOffset.UTC);
+        ZonedDateTime start = current.with(LocalTime.of(hour, minute)).truncatedTo(ChronoUnit.MINUTES);
+
+        if (matcher.group(1) == null) {
+            return start.isAfter(current) ? start.minusDays(1) : start;
+        }
+        final DayOfWeek day = parseDay(matcher.group(1));
+        if (day == null) {
+            return null;
+        }
+        start = start.with(TemporalAdjusters.previousOrSame(day));
+        return start.isAfter(current) ? start.minusWeeks(1) : start;
+    }
+
+    private static DayOfWeek parseDay(final String abbreviation) {
+        for (final DayOfWeek day : DayOfWeek.values()) {
+            if (day.getDisplayName(TextStyle.SHORT, Locale.ENGLISH).equalsIgnoreCase(abbreviation)) {
+                return day;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,133 @@
+package software.amazon.opsworkscm.server;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+/**
+ * Observed create and delete durations per engine, engine model and instance type. Durations are kept in the Lambda
+ * {@code /tmp} directory so warm containers learn from earlier stacks. The store is only an optimization: read and
+ * write failures leave it empty and polling falls back to the polling policy.
+ */
+public class StabilizationStats {
+
+    static final int MIN_SAMPLES = 3;
+    static final int MAX_SAMPLES_PER_KEY = 50;
+    // Low percentile so the predicted first poll rarely lands after the server is ready
+    static final int ESTIMATE_PERCENTILE = 10;
+    private static final long MAX_DURATION_SECONDS = 24 * 60 * 60;
+    private static final String UNKNOWN = "unknown";
+
+    private static final StabilizationStats DEFAULT =
+            new StabilizationStats(Paths.get(System.getProperty("java.io.tmpdir"), "opsworkscm-stabilization-stats.properties"));
+
+    private final Path file;
+    private Map<String, List<Long>> durations;
+
+    public StabilizationStats(final Path file) {
+        this.file = file;
+    }
+
+    public static StabilizationStats getDefault() {
+        return DEFAULT;
+    }
+
+    public static String key(final String operation, final ResourceModel model) {
+        return String.join("|", operation, valueOrUnknown(model.getEngine()), valueOrUnknown(model.getEngineModel()),
+                valueOrUnknown(model.getInstanceType()));
+    }
+
+    /**
+     * @return the estimated duration in seconds, or 0 when there are not enough samples for the key
+     */
+    public synchronized int estimateSeconds(final String key) {
+        final List<Long> samples = load().getOrDefault(key, Collections.emptyList());
+        if (samples.size() < MIN_SAMPLES) {
+            return 0;
+        }
+        final List<Long> sorted = new ArrayList<>(samples);
+        Collections.sort(sorted);
+        final int rank = (ESTIMATE_PERCENTILE * sorted.size() + 99) / 100;
+        return sorted.get(Math.max(rank, 1) - 1).intValue();
+    }
+
+    public synchronized void record(final String key, final long durationSeconds) {
+        if (durationSeconds <= 0 || durationSeconds > MAX_DURATION_SECONDS) {
+            return;
+        }
+        final List<Long> samples = load().computeIfAbsent(key, k -> new ArrayList<>());
+        samples.add(durationSeconds);
+        if (samples.size() > MAX_SAMPLES_PER_KEY) {
+            samples.remove(0);
+        }
+        save();
+    }
+
+    private Map<String, List<Long>> load() {
+        if (durations != null) {
+            return durations;
+        }
+        durations = new HashMap<>();
+        if (!Files.isReadable(file)) {
+            return durations;
+        }
+        final Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+            for (final String key : properties.stringPropertyNames()) {
+                durations.put(key, Arrays.stream(properties.getProperty(key).split(","))
+                        .filter(value -> !value.isEmpty())
+                        .map(Long::valueOf)
+                        .collect(Collectors.toCollection(ArrayList::new)));
+            }
+        } catch (IOException | RuntimeException e) {
+            durations.clear();
+        }
+        return durations;
+    }
+
+    private void save() {
+        final Properties properties = new Properties();
+        durations.forEach((key, samples) -> properties.setProperty(key,
+                samples.stream().map(String::valueOf).collect(Collectors.joining(","))));
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile(file.toAbsolutePath().getParent(), "stabilization-stats", ".tmp");
+            try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                properties.store(writer, null);
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            // Keep the in-memory samples; the next record retries the write
+            deleteQuietly(tempFile);
+        }
+    }
+
+    private static void deleteQuietly(final Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Nothing left to do for a temporary file
+        }
+    }
+
+    private static String valueOrUnknown(final String value) {
+        return value == null || value.isEmpty() ? UNKNOWN : value;
+    }
+}
@@ -0,0 +1,71 @@
+package software.amazon.opsworkscm.server;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Classifies the difference between the previous and the desired tags of a server. Keys reserved by AWS
+ * ({@code aws:} prefix) are never added or removed.
+ */
+@Getter
+public class TagDiff {
+
+    private static final String RESERVED_KEY_PREFIX = "aws:";
+
+    private final Map<String, String> added = new LinkedHashMap<>();
+    private final Map<String, String> changed = new LinkedHashMap<>();
+    private final Map<String, String> unchanged = new LinkedHashMap<>();
+    private final List<String> removed = new ArrayList<>();
+
+    public static TagDiff between(final List<Tag> previousTags, final List<Tag> desiredTags) {
+        final TagDiff diff = new TagDiff();
+        final Map<String, String> previous = toMap(previousTags);
+        final Map<String, String> desired = toMap(desiredTags);
+
+        desired.forEach((key, value) -> {
+            if (!previous.containsKey(key)) {
+                diff.added.put(key, value);
+            } else if (Objects.equals(previous.get(key), value)) {
+                diff.unchanged.put(key, value);
+            } else {
+                diff.changed.put(key, value);
+            }
+        });
+        previous.keySet().stream()
+                .filter(key -> !desired.containsKey(key))
+                .forEach(diff.removed::add);
+        return diff;
+    }
+
+    public boolean hasChanges() {
+        return !added.isEmpty() || !changed.isEmpty() || !removed.isEmpty();
+    }
+
+    public Map<String, String> getTagsToApply() {
+        final Map<String, String> tagsToApply = new LinkedHashMap<>(added);
+        tagsToApply.putAll(changed);
+        return Collections.unmodifiableMap(tagsToApply);
+    }
+
+    public static boolean isReservedKey(final String key) {
+        return key != null && key.toLowerCase(Locale.ROOT).startsWith(RESERVED_KEY_PREFIX);
+    }
+
+    private static Map<String, String> toMap(final List<Tag> tags) {
+        final Map<String, String> tagMap = new LinkedHashMap<>();
+        if (tags == null) {
+            return tagMap;
+        }
+        tags.stream()
+                .filter(tag -> tag != null && tag.getKey() != null && !isReservedKey(tag.getKey()))
+                .forEach(tag -> tagMap.put(tag.getKey(), tag.getValue()));
+        return tagMap;
+    }
+}
@@ -4,6 +4,7 @@ import software.amazon.awssdk.services.opsworkscm.model.InvalidStateException;
 import software.amazon.awssdk.services.opsworkscm.model.OpsWorksCmException;
 import software.amazon.awssdk.services.opsworkscm.model.ResourceNotFoundException;
 import software.amazon.awssdk.services.opsworkscm.model.Server;
+import software.amazon.awssdk.services.opsworkscm.model.UpdateServerResponse;
 import software.amazon.cloudformation.exceptions.CfnInternalFailureException;
 import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
 import software.amazon.cloudformation.exceptions.CfnNotFoundException;
@@ -19,6 +20,9 @@ import static software.amazon.opsworkscm.server.ResourceModel.IDENTIFIER_KEY_SER
 
 public class UpdateHandler extends BaseOpsWorksCMHandler {
 
+    // Time kept in reserve so a phase started near the end of the invocation can still finish
+    private static final long PHASE_TIME_RESERVE_MILLIS = 20_000L;
+
     @Override
     public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
             final AmazonWebServicesClientProxy proxy,
@@ -30,15 +34,9 @@ public class UpdateHandler extends BaseOpsWorksCMHandler {
         String serverName = context.getModel().getPrimaryIdentifier().get(IDENTIFIER_KEY_SERVERNAME).toString();
 
         try {
-            if (!context.getCallbackContext().isUpdateTagComplete()) {
-                return updateTags(context);
-            }
-            if (!context.getCallbackContext().isUpdateServerComplete()) {
-                return updateServer(context);
-            }
-            Server server = client.describeServer(context.getModel().getServerName()).servers().get(0);
-            List<Tag> tags = context.getRequest().getDesiredResourceState().getTags();
-            return ProgressEvent.defaultSuccessHandler(generateModelFromServer(server, tags));
+            return runPhases(context);
+        } catch (CircuitOpenException e) {
+            return waitForCircuit(context, serverName, e);
         } catch (ResourceNotFoundException e) {
             log.error(String.format("ResourceNotFoundException during update of server %s, with message %s", serverName, e.getMessage()), e);
             throw new CfnNotFoundException(resourceTypeName, serverName);
@@ -46,6 +44,9 @@ public class UpdateHandler extends BaseOpsWorksCMHandler {
             log.error(String.format("InvalidStateException during update of server %s, with message %s", serverName, e.getMessage()), e);
             throw new CfnNotStabilizedException(resourceTypeName, serverName);
         } catch (OpsWorksCmException e) {
+            if (isThrottling(e) || isTransientServiceError(e)) {
+                return retryAfterServiceError(context, serverName, e);
+            }
             log.error(String.format("ValidationException during update of server %s, with message %s", serverName, e.getMessage()), e);
             throw new CfnInvalidRequestException(e.getMessage(), e);
         } catch (Exception e) {
@@ -54,16 +55,61 @@ public class UpdateHandler extends BaseOpsWorksCMHandler {
         }
     }
 
-    private ProgressEvent<ResourceModel, CallbackContext> updateTags(InvocationContext context) {
-        client.untagServer();
-        client.tagServer();
-        context.getCallbackContext().setUpdateTagComplete(true);
-        return ProgressEvent.defaultInProgressHandler(context.getCallbackContext(), NO_CALLBACK_DELAY, context.getModel());
+    private ProgressEvent<ResourceModel, CallbackContext> runPhases(InvocationContext context) {
+        CallbackContext callbackContext = context.getCallbackContext();
+        if (callbackContext.getUpdatePhase() == null) {
+            callbackContext.setUpdatePhase(UpdatePhase.UPDATE_TAGS);
+        }
+
+        while (true) {
+            switch (callbackContext.getUpdatePhase()) {
+                case UPDATE_TAGS:
+                    updateTags(context);
+                    callbackContext.setUpdatePhase(UpdatePhase.UPDATE_SERVER);
+                    break;
+                case UPDATE_SERVER:
+                    final ProgressEvent<ResourceModel, CallbackContext> result = updateServer(context);
+                    if (result != null) {
+                        return result;
+                    }
+                    callbackContext.setUpdatePhase(UpdatePhase.DESCRIBE_SERVER);
+                    break;
+                default:
+                    Server server = client.describeServer(context.getModel().getServerName()).servers().get(0);
+                    List<Tag> tags = context.getRequest().getDesiredResourceState().getTags();
+                    return ProgressEvent.defaultSuccessHandler(generateModelFromServer(server, tags));
+            }
+            resetServiceRetries(callbackContext);
+
+            if (remainingTimeMillis(context) < PHASE_TIME_RESERVE_MILLIS) {
+                log.info(String.format("Not enough invocation time left to run phase %s for server %s. Continuing in a new invocation.",
+                        callbackContext.getUpdatePhase(), context.getModel().getServerName()));
+                return ProgressEvent.defaultInProgressHandler(callbackContext, NO_CALLBACK_DELAY, context.getModel());
+            }
+        }
+    }
+
+    private void updateTags(InvocationContext context) {
+        if (client.getTagDiff().hasChanges()) {
+            client.untagServer();
+            client.tagServer();
+        } else {
+            log.info(String.format("Tags of server %s did not change. Skipping tag update.", context.getModel().getServerName()));
+        }
+        context.getCallbackContext().setServerArn(client.getServerArn());
     }
 
     private ProgressEvent<ResourceModel, CallbackContext> updateServer(InvocationContext context) {
-        client.updateServer();
-        context.getCallbackContext().setUpdateServerComplete(true);
-        return ProgressEvent.defaultInProgressHandler(context.getCallbackContext(), NO_CALLBACK_DELAY, context.getModel());
+        final UpdateServerResponse response = client.updateServer();
+        if (response == null) {
+            log.info(String.format("No updatable properties of server %s changed. Skipping UpdateServer.", context.getModel().getServerName()));
+            return null;
+        }
+        if (response.server() != null) {
+            recordServerState(context.getCallbackContext(), response.server());
+            List<Tag> tags = context.getRequest().getDesiredResourceState().getTags();
+            return ProgressEvent.defaultSuccessHandler(generateModelFromServer(response.server(), tags));
+        }
+        return null;
     }
 }
@@ -0,0 +1,7 @@
+package software.amazon.opsworkscm.server;
+
+public enum UpdatePhase {
+    UPDATE_TAGS,
+    UPDATE_SERVER,
+    DESCRIBE_SERVER
+}
@@ -0,0 +1,152 @@
+package software.amazon.opsworkscm.server.utils;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Concurrency limit that finds its own level with additive increase and multiplicative decrease. Every call that
+ * succeeds at the usual latency raises the limit by about one per round of calls. A throttled call halves the
+ * limit, and a call much slower than the fastest one seen trims it, since the service is queueing. Calls already
+ * in flight when the limit was lowered do not lower it again. Throttled calls are retried after a jittered
+ * backoff, once a slot is free again under the lowered limit. When the caller can tell how long the service itself
+ * took, for example without client-side rate limit waits, that latency is used instead of the time of the call.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    static final double THROTTLE_DECREASE_FACTOR = 0.5;
+    static final double LATENCY_DECREASE_FACTOR = 0.9;
+    static final double LATENCY_TOLERANCE = 2.0;
+    static final int MAX_ATTEMPTS = 3;
+    static final long RETRY_BASE_DELAY_MILLIS = 200L;
+    static final long MAX_RETRY_DELAY_MILLIS = 2_000L;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final Predicate<RuntimeException> isThrottle;
+    private final LongSupplier callLatencyNanos;
+    private final LongSupplier nanoTime;
+    private final Sleeper sleeper;
+
+    private double limit;
+    private int inFlight;
+    private long minLatencyNanos = Long.MAX_VALUE;
+    private int throttleCount;
+    private long lastDecreaseAt = Long.MIN_VALUE;
+
+    public AdaptiveConcurrencyLimiter(final int initialLimit, final int minLimit, final int maxLimit,
+                                      final Predicate<RuntimeException> isThrottle) {
+        this(initialLimit, minLimit, maxLimit, isThrottle, null);
+    }
+
+    /**
+     * @param callLatencyNanos latency of the call that just completed on the current thread, null to time the call
+     */
+    public AdaptiveConcurrencyLimiter(final int initialLimit, final int minLimit, final int maxLimit,
+                                      final Predicate<RuntimeException> isThrottle, final LongSupplier callLatencyNanos) {
+        this(initialLimit, minLimit, maxLimit, isThrottle, callLatencyNanos, System::nanoTime, Thread::sleep);
+    }
+
+    AdaptiveConcurrencyLimiter(final int initialLimit, final int minLimit, final int maxLimit,
+                               final Predicate<RuntimeException> isThrottle, final LongSupplier callLatencyNanos,
+                               final LongSupplier nanoTime, final Sleeper sleeper) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= minLimit <= maxLimit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.isThrottle = isThrottle;
+        this.callLatencyNanos = callLatencyNanos;
+        this.nanoTime = nanoTime;
+        this.sleeper = sleeper;
+    }
+
+    /**
+     * Runs the call once a slot is free, retrying it while it is throttled.
+     */
+    public <T> T call(final Supplier<T> call) {
+        for (int attempt = 1; ; attempt++) {
+            acquire();
+            final long start = nanoTime.getAsLong();
+            try {
+                final T result = call.get();
+                onSuccess(start, nanoTime.getAsLong());
+                return result;
+            } catch (RuntimeException e) {
+                if (!isThrottle.test(e)) {
+                    throw e;
+                }
+                onThrottle(start);
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+            } finally {
+                release();
+            }
+            backOff(attempt);
+        }
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getThrottleCount() {
+        return throttleCount;
+    }
+
+    private synchronized void acquire() {
+        while (inFlight >= (int) limit) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a concurrency slot", e);
+            }
+        }
+        inFlight++;
+    }
+
+    private void backOff(final int attempt) {
+        final long ceiling = Math.min(MAX_RETRY_DELAY_MILLIS, RETRY_BASE_DELAY_MILLIS << (attempt - 1));
+        try {
+            sleeper.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off a throttled call", e);
+        }
+    }
+
+    private synchronized void onSuccess(final long start, final long end) {
+        final long latencyNanos = callLatencyNanos != null ? callLatencyNanos.getAsLong() : end - start;
+        minLatencyNanos = Math.min(minLatencyNanos, latencyNanos);
+        if (latencyNanos > minLatencyNanos * LATENCY_TOLERANCE) {
+            decrease(start, end, LATENCY_DECREASE_FACTOR);
+        } else {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    private synchronized void onThrottle(final long start) {
+        throttleCount++;
+        decrease(start, nanoTime.getAsLong(), THROTTLE_DECREASE_FACTOR);
+    }
+
+    private void decrease(final long start, final long now, final double factor) {
+        if (start >= lastDecreaseAt) {
+            limit = Math.max(minLimit, limit * factor);
+            lastDecreaseAt = now;
+        }
+    }
+
+    private synchronized void release() {
+        inFlight--;
+        notifyAll();
+    }
+}
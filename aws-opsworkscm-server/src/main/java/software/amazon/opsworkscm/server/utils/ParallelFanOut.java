@@ -0,0 +1,113 @@
+package software.amazon.opsworkscm.server.utils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a task for every item with at most {@code maxConcurrency} tasks in flight. Results keep the order of the
+ * input items. Virtual threads are used when the runtime provides them, a fixed thread pool otherwise.
+ */
+public final class ParallelFanOut {
+
+    private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutorFactory();
+
+    private ParallelFanOut() {
+    }
+
+    public static <T, R> List<R> map(final List<T> items, final Function<T, R> task, final int maxConcurrency) {
+        if (items.size() <= 1 || maxConcurrency <= 1) {
+            return items.stream().map(task).collect(Collectors.toList());
+        }
+
+        final int concurrency = Math.min(maxConcurrency, items.size());
+        final Semaphore permits = new Semaphore(concurrency);
+        return run(items, item -> {
+            permits.acquire();
+            try {
+                return task.apply(item);
+            } finally {
+                permits.release();
+            }
+        }, concurrency);
+    }
+
+    /**
+     * Same as {@link #map(List, Function, int)}, with the number of calls in flight set by the limiter as it adapts.
+     */
+    public static <T, R> List<R> map(final List<T> items, final Function<T, R> task, final AdaptiveConcurrencyLimiter limiter) {
+        if (items.size() <= 1 || limiter.getMaxLimit() <= 1) {
+            return items.stream().map(item -> limiter.call(() -> task.apply(item))).collect(Collectors.toList());
+        }
+        return run(items, item -> limiter.call(() -> task.apply(item)), Math.min(limiter.getMaxLimit(), items.size()));
+    }
+
+    private static <T, R> List<R> run(final List<T> items, final GuardedTask<T, R> task, final int threads) {
+        final ExecutorService executor = newExecutor(threads);
+        final List<Future<R>> futures = new ArrayList<>(items.size());
+        try {
+            for (final T item : items) {
+                futures.add(executor.submit(() -> task.apply(item)));
+            }
+
+            final List<R> results = new ArrayList<>(items.size());
+            for (final Future<R> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for parallel tasks", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface GuardedTask<T, R> {
+        R apply(T item) throws InterruptedException;
+    }
+
+    public static boolean isVirtualThreadSupported() {
+        return NEW_VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    private static ExecutorService newExecutor(final int concurrency) {
+        if (NEW_VIRTUAL_THREAD_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // Fall back to platform threads
+            }
+        }
+        return Executors.newFixedThreadPool(concurrency, runnable -> {
+            final Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static Method findVirtualThreadExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
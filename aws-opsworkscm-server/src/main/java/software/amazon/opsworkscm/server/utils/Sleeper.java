@@ -0,0 +1,7 @@
+package software.amazon.opsworkscm.server.utils;
+
+@FunctionalInterface
+public interface Sleeper {
+
+    void sleep(long millis) throws InterruptedException;
+}
@@ -0,0 +1,99 @@
+package software.amazon.opsworkscm.server.utils;
+
+import lombok.Value;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket kept as a single theoretical arrival time (GCRA), so taking a token is one read and one
+ * compare-and-set with no lock. A caller that finds the bucket empty reserves the next token and is told how long
+ * to wait for it; the caller does the waiting.
+ */
+public class TokenBucket {
+
+    private final double permitsPerSecond;
+    private final long intervalNanos;
+    private final long burstToleranceNanos;
+    private final LongSupplier nanoTime;
+    private final AtomicLong theoreticalArrivalTime;
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder delayedAcquisitions = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public TokenBucket(final double permitsPerSecond, final int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    public TokenBucket(final double permitsPerSecond, final int burst, final LongSupplier nanoTime) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive and burst at least 1");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstToleranceNanos = intervalNanos * (burst - 1);
+        this.nanoTime = nanoTime;
+        this.theoreticalArrivalTime = new AtomicLong(nanoTime.getAsLong());
+    }
+
+    /**
+     * Takes a token.
+     *
+     * @return nanoseconds the caller has to wait before using it, 0 when a token was available
+     */
+    public long reserve() {
+        return tryReserve(Long.MAX_VALUE);
+    }
+
+    /**
+     * Takes a token if the caller would have to wait no longer than {@code maxWaitNanos} for it. Otherwise the
+     * bucket is left as it was, so a caller that gives up does not hold back the others.
+     *
+     * @return nanoseconds the caller has to wait; more than {@code maxWaitNanos} when no token was taken
+     */
+    public long tryReserve(final long maxWaitNanos) {
+        while (true) {
+            final long now = nanoTime.getAsLong();
+            final long current = theoreticalArrivalTime.get();
+            final long start = Math.max(current, now);
+            final long waitNanos = Math.max(0L, start - now - burstToleranceNanos);
+            if (waitNanos > maxWaitNanos) {
+                return waitNanos;
+            }
+            if (theoreticalArrivalTime.compareAndSet(current, start + intervalNanos)) {
+                recordWait(waitNanos);
+                return waitNanos;
+            }
+        }
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public Stats getStats() {
+        return new Stats(acquisitions.sum(), delayedAcquisitions.sum(),
+                TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum()), TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+    }
+
+    private void recordWait(final long waitNanos) {
+        acquisitions.increment();
+        if (waitNanos > 0) {
+            delayedAcquisitions.increment();
+            totalWaitNanos.add(waitNanos);
+            maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        }
+    }
+
+    @Value
+    public static class Stats {
+        long acquisitions;
+        long delayedAcquisitions;
+        long totalWaitMillis;
+        long maxWaitMillis;
+    }
+}
@@ -0,0 +1,95 @@
+package software.amazon.opsworkscm.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ApiRateLimiterTest {
+
+    private final List<Long> sleeps = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        ApiRateLimiter.reset();
+    }
+
+    @Test
+    public void testDefaultRates() {
+        ApiRateLimiter limiter = limiter("111111111111", null);
+
+        assertThat(limiter.permitsPerSecond(ApiRateLimiter.DESCRIBE_SERVERS)).isEqualTo(ApiRateLimiter.DEFAULT_DESCRIBE_SERVERS_PER_SECOND);
+        assertThat(limiter.permitsPerSecond(ApiRateLimiter.LIST_TAGS_FOR_RESOURCE)).isEqualTo(ApiRateLimiter.DEFAULT_LIST_TAGS_PER_SECOND);
+        assertThat(limiter.permitsPerSecond("UpdateServer")).isEqualTo(ApiRateLimiter.DEFAULT_OTHER_OPERATIONS_PER_SECOND);
+    }
+
+    @Test
+    public void testRatesFromTypeConfiguration() {
+        ApiRateLimiter limiter = limiter("111111111111", TypeConfigurationModel.builder()
+                .describeServersRequestsPerSecond(2)
+                .listTagsForResourceRequestsPerSecond(3)
+                .otherRequestsPerSecond(1)
+                .build());
+
+        assertThat(limiter.permitsPerSecond(ApiRateLimiter.DESCRIBE_SERVERS)).isEqualTo(2);
+        assertThat(limiter.permitsPerSecond(ApiRateLimiter.LIST_TAGS_FOR_RESOURCE)).isEqualTo(3);
+        assertThat(limiter.permitsPerSecond("DeleteServer")).isEqualTo(1);
+    }
+
+    @Test
+    public void testCallsBeyondTheBurstWait() {
+        ApiRateLimiter limiter = limiter("111111111111", TypeConfigurationModel.builder().describeServersRequestsPerSecond(2).build());
+
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire(ApiRateLimiter.DESCRIBE_SERVERS);
+        }
+
+        assertThat(sleeps).hasSize(2);
+        assertThat(sleeps.get(1)).isGreaterThan(sleeps.get(0));
+        assertThat(limiter.getStats(ApiRateLimiter.DESCRIBE_SERVERS).getDelayedAcquisitions()).isEqualTo(2);
+    }
+
+    @Test
+    public void testBucketsAreSharedPerAccountRegionAndOperation() {
+        TypeConfigurationModel configuration = TypeConfigurationModel.builder().otherRequestsPerSecond(1).build();
+        ApiRateLimiter first = limiter("111111111111", configuration);
+        ApiRateLimiter second = limiter("111111111111", configuration);
+        ApiRateLimiter otherAccount = limiter("222222222222", configuration);
+
+        first.acquire("UpdateServer");
+        first.acquire("DeleteServer");
+        otherAccount.acquire("UpdateServer");
+        assertThat(sleeps).isEmpty();
+
+        second.acquire("UpdateServer");
+        assertThat(sleeps).hasSize(1);
+    }
+
+    @Test
+    public void testWaitNeverExceedsTheRemainingTime() {
+        ApiRateLimiter limiter = limiter("111111111111", TypeConfigurationModel.builder().otherRequestsPerSecond(1).build());
+
+        limiter.acquire("UpdateServer", 100L);
+        assertThat(limiter.acquire("UpdateServer", 100L)).isEqualTo(100L);
+        assertThat(limiter.acquire("UpdateServer", -5L)).isZero();
+        assertThat(sleeps).containsExactly(100L);
+
+        // The capped calls did not reserve tokens, so the next caller waits for one interval only
+        limiter.acquire("UpdateServer");
+        assertThat(sleeps.get(1)).isLessThanOrEqualTo(1_000L);
+    }
+
+    @Test
+    public void testUnlimitedNeverWaits() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(ApiRateLimiter.UNLIMITED.acquire(ApiRateLimiter.DESCRIBE_SERVERS)).isZero();
+        }
+    }
+
+    private ApiRateLimiter limiter(final String accountId, final TypeConfigurationModel configuration) {
+        return ApiRateLimiter.forAccountAndRegion(accountId, "us-east-1", configuration, sleeps::add);
+    }
+}
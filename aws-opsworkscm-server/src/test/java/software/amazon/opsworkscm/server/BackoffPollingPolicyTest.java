@@ -0,0 +1,67 @@
+package software.amazon.opsworkscm.server;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.opsworkscm.model.ServerStatus;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BackoffPollingPolicyTest {
+
+    private static final int TYPICAL_CREATE_SECONDS = 20 * 60;
+    private static final int TYPICAL_DELETE_SECONDS = 5 * 60;
+    private static final int FIXED_DELAY_SECONDS = 60;
+
+    @Test
+    public void testCreatePollsAtMostEveryMinuteWhileCreating() {
+        PollingPolicy policy = BackoffPollingPolicy.forCreate();
+
+        assertThat(policy.getCallbackDelaySeconds(0, null)).isEqualTo(60);
+        assertThat(IntStream.rangeClosed(1, 4).map(attempt -> policy.getCallbackDelaySeconds(attempt, ServerStatus.CREATING)))
+                .containsExactly(60, 60, 60, 60);
+        assertThat(policy.getCallbackDelaySeconds(1, ServerStatus.UNDER_MAINTENANCE)).isEqualTo(30);
+        assertThat(policy.getCallbackDelaySeconds(10, ServerStatus.BACKING_UP)).isEqualTo(60);
+    }
+
+    @Test
+    public void testDeleteChecksEarlyAndNeverWaitsLongerThanFixedDelay() {
+        PollingPolicy policy = BackoffPollingPolicy.forDelete();
+
+        assertThat(policy.getCallbackDelaySeconds(0, null)).isEqualTo(15);
+        assertThat(IntStream.rangeClosed(1, 5).map(attempt -> policy.getCallbackDelaySeconds(attempt, ServerStatus.DELETING)))
+                .containsExactly(15, 30, 60, 60, 60);
+        assertThat(policy.getCallbackDelaySeconds(3, ServerStatus.HEALTHY)).isEqualTo(FIXED_DELAY_SECONDS);
+    }
+
+    @Test
+    public void testLargeAttemptCountsStayCapped() {
+        PollingPolicy policy = BackoffPollingPolicy.forCreate();
+
+        assertThat(policy.getCallbackDelaySeconds(Integer.MAX_VALUE, ServerStatus.CREATING)).isEqualTo(FIXED_DELAY_SECONDS);
+    }
+
+    @Test
+    public void testCreateIsNotSlowerThanFixedDelay() {
+        int fixedSeconds = secondsUntilObserved(TYPICAL_CREATE_SECONDS, (attempt, status) -> FIXED_DELAY_SECONDS, ServerStatus.CREATING);
+        int backoffSeconds = secondsUntilObserved(TYPICAL_CREATE_SECONDS, BackoffPollingPolicy.forCreate(), ServerStatus.CREATING);
+
+        assertThat(backoffSeconds).isLessThanOrEqualTo(fixedSeconds);
+    }
+
+    @Test
+    public void testDeleteIsNotSlowerThanFixedDelay() {
+        int fixedSeconds = secondsUntilObserved(TYPICAL_DELETE_SECONDS, (attempt, status) -> FIXED_DELAY_SECONDS, ServerStatus.DELETING);
+        int backoffSeconds = secondsUntilObserved(TYPICAL_DELETE_SECONDS, BackoffPollingPolicy.forDelete(), ServerStatus.DELETING);
+
+        assertThat(backoffSeconds).isLessThanOrEqualTo(fixedSeconds);
+    }
+
+    private static int secondsUntilObserved(final int durationSeconds, final PollingPolicy policy, final ServerStatus status) {
+        int elapsed = policy.getCallbackDelaySeconds(0, null);
+        for (int attempt = 1; elapsed < durationSeconds; attempt++) {
+            elapsed += policy.getCallbackDelaySeconds(attempt, status);
+        }
+        return elapsed;
+    }
+}
@@ -0,0 +1,144 @@
+package software.amazon.opsworkscm.server;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.resourcegroupstaggingapi.ResourceGroupsTaggingApiClient;
+import software.amazon.awssdk.services.resourcegroupstaggingapi.model.GetResourcesRequest;
+import software.amazon.awssdk.services.resourcegroupstaggingapi.model.GetResourcesResponse;
+import software.amazon.awssdk.services.resourcegroupstaggingapi.model.ResourceTagMapping;
+import software.amazon.awssdk.services.resourcegroupstaggingapi.model.ThrottledException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.opsworkscm.server.utils.LoggerWrapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class BulkServerTagSourceTest {
+
+    private static final int SERVER_COUNT = 250;
+
+    private AmazonWebServicesClientProxy proxy;
+    private LoggerWrapper log;
+    private final Map<String, String> taggedServers = new HashMap<>();
+    private final AtomicInteger getResourcesCalls = new AtomicInteger();
+    private final AtomicInteger fallbackCalls = new AtomicInteger();
+
+    private final ServerTagSource fallback = serverArns -> {
+        fallbackCalls.incrementAndGet();
+        return serverArns.stream().collect(Collectors.toMap(arn -> arn, arn -> Collections.<Tag>emptyList()));
+    };
+
+    @BeforeEach
+    public void setup() {
+        proxy = mock(AmazonWebServicesClientProxy.class);
+        log = new LoggerWrapper(mock(Logger.class));
+    }
+
+    @Test
+    public void testTagsAreFetchedInBatches() {
+        final List<String> arns = arns(SERVER_COUNT);
+        arns.stream().filter(arn -> !arn.equals("arn:server-7")).forEach(arn -> taggedServers.put(arn, arn + "-owner"));
+        standInTaggingApi();
+
+        final Map<String, List<Tag>> tags = bulkSource().getTags(arns);
+
+        assertThat(tags).hasSize(SERVER_COUNT);
+        assertThat(tags.get(arns.get(0))).containsExactly(Tag.builder().key("owner").value(arns.get(0) + "-owner").build());
+        assertThat(tags.get("arn:server-7")).isEmpty();
+        assertThat(fallbackCalls).hasValue(0);
+        assertThat(getResourcesCalls).hasValue(3);
+    }
+
+    @Test
+    public void testFallsBackToPerServerLookupOnError() {
+        doThrow(ThrottledException.builder().message("Rate exceeded").build())
+                .when(proxy).injectCredentialsAndInvokeV2(any(GetResourcesRequest.class), any());
+
+        final Map<String, List<Tag>> tags = bulkSource().getTags(arns(3));
+
+        assertThat(tags).hasSize(3);
+        assertThat(fallbackCalls).hasValue(1);
+    }
+
+    @Test
+    public void testFallsBackWhenTaggingClientIsUnavailable() {
+        final BulkServerTagSource source = new BulkServerTagSource(() -> {
+            throw new IllegalStateException("Unable to load region");
+        }, client(), fallback, log);
+
+        assertThat(source.getTags(arns(3))).hasSize(3);
+        assertThat(fallbackCalls).hasValue(1);
+    }
+
+    @Test
+    public void testOpenCircuitIsNotRetriedPerServer() {
+        final CircuitBreaker breaker = new CircuitBreaker(() -> 0L);
+        for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD; i++) {
+            breaker.onFailure();
+        }
+        final ClientWrapper guardedClient = new ClientWrapper(null, null, null, proxy, log, ApiRateLimiter.UNLIMITED, breaker);
+        final BulkServerTagSource source = new BulkServerTagSource(() -> mock(ResourceGroupsTaggingApiClient.class), guardedClient, fallback, log);
+
+        assertThatThrownBy(() -> source.getTags(arns(3))).isInstanceOf(CircuitOpenException.class);
+        assertThat(fallbackCalls).hasValue(0);
+        verify(proxy, never()).injectCredentialsAndInvokeV2(any(), any());
+    }
+
+    @Test
+    public void testNoCallsForEmptyPage() {
+        assertThat(bulkSource().getTags(new ArrayList<>())).isEmpty();
+        assertThat(getResourcesCalls).hasValue(0);
+        assertThat(fallbackCalls).hasValue(0);
+    }
+
+    private BulkServerTagSource bulkSource() {
+        return new BulkServerTagSource(() -> mock(ResourceGroupsTaggingApiClient.class), client(), fallback, log);
+    }
+
+    private ClientWrapper client() {
+        return new ClientWrapper(null, null, null, proxy, log);
+    }
+
+    // Local stand-in for GetResources: returns mappings only for tagged ARNs, in one page like the real API
+    private void standInTaggingApi() {
+        doAnswer(invocation -> {
+            getResourcesCalls.incrementAndGet();
+            final GetResourcesRequest request = invocation.getArgument(0);
+            assertThat(request.resourceARNList()).hasSizeLessThanOrEqualTo(BulkServerTagSource.MAX_ARNS_PER_REQUEST);
+            assertThat(request.paginationToken()).isNull();
+
+            final List<ResourceTagMapping> mappings = request.resourceARNList().stream()
+                    .filter(taggedServers::containsKey)
+                    .map(arn -> ResourceTagMapping.builder()
+                            .resourceARN(arn)
+                            .tags(software.amazon.awssdk.services.resourcegroupstaggingapi.model.Tag.builder()
+                                    .key("owner").value(taggedServers.get(arn)).build())
+                            .build())
+                    .collect(Collectors.toList());
+            return GetResourcesResponse.builder()
+                    .resourceTagMappingList(mappings)
+                    .paginationToken("")
+                    .build();
+        }).when(proxy).injectCredentialsAndInvokeV2(any(GetResourcesRequest.class), any());
+    }
+
+    private static List<String> arns(final int count) {
+        return IntStream.range(0, count).mapToObj(i -> "arn:server-" + i).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,120 @@
+package software.amazon.opsworkscm.server;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.services.opsworkscm.model.CreateServerRequest;
+import software.amazon.awssdk.services.opsworkscm.model.CreateServerResponse;
+import software.amazon.awssdk.services.opsworkscm.model.Server;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+public class CallbackPayloadTest {
+
+    private static final String SERVER_NAME = "ServerName";
+    private static final int CERTIFICATE_SIZE = 2 * 1024 * 1024;
+    private static final int PRIVATE_KEY_SIZE = 4096;
+
+    private final ObjectMapper mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @TempDir
+    Path tempDir;
+
+    private AmazonWebServicesClientProxy proxy;
+    private CreateHandler handler;
+
+    @BeforeEach
+    public void setup() {
+        proxy = mock(AmazonWebServicesClientProxy.class);
+        handler = new CreateHandler();
+        handler.stabilizationStats = new StabilizationStats(tempDir.resolve("stats.properties"));
+        handler.statusWatcher = new ServerStatusWatcher();
+        doReturn(CreateServerResponse.builder().server(Server.builder().serverName(SERVER_NAME).status("CREATING").build()).build())
+                .when(proxy).injectCredentialsAndInvokeV2(any(CreateServerRequest.class), any());
+    }
+
+    @Test
+    public void testInProgressModelDropsWriteOnlyPayload() {
+        final ResourceModel returned = createAndReturnModel();
+
+        assertThat(returned.getCustomCertificate()).isNull();
+        assertThat(returned.getCustomPrivateKey()).isNull();
+        assertThat(returned.getEngineAttributes()).isNull();
+        assertThat(returned.getServerName()).isEqualTo(SERVER_NAME);
+        assertThat(returned.getEngine()).isEqualTo("ChefAutomate");
+        assertThat(returned.getTags()).hasSize(1);
+    }
+
+    @Test
+    public void testPayloadIsKeptWhenStrippingIsOff() {
+        handler.stripWriteOnlyPayload = false;
+
+        final ResourceModel returned = createAndReturnModel();
+
+        assertThat(returned).isEqualTo(largeModel());
+    }
+
+    @Test
+    public void testSlimPayloadIsSmaller() throws Exception {
+        final ResourceModel full = largeModel();
+        final ResourceModel slim = createAndReturnModel();
+
+        final int fullBytes = mapper.writeValueAsBytes(full).length;
+        final int slimBytes = mapper.writeValueAsBytes(slim).length;
+
+        assertThat(fullBytes).isGreaterThan(CERTIFICATE_SIZE);
+        assertThat(slimBytes)
+                .as("payload per callback: full %d bytes, slim %d bytes", fullBytes, slimBytes)
+                .isLessThan(fullBytes / 1000);
+    }
+
+    private ResourceModel createAndReturnModel() {
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(largeModel())
+                .logicalResourceIdentifier("MyOpsWorksCMServer")
+                .clientRequestToken(UUID.randomUUID().toString())
+                .region("us-east-1")
+                .build();
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+                handler.handleRequest(proxy, request, CallbackContext.builder().build(), mock(Logger.class));
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        return response.getResourceModel();
+    }
+
+    private static ResourceModel largeModel() {
+        return ResourceModel.builder()
+                .serverName(SERVER_NAME)
+                .engine("ChefAutomate")
+                .engineModel("Single")
+                .instanceType("m5.large")
+                .customDomain("chef.example.com")
+                .customCertificate(pem("CERTIFICATE", CERTIFICATE_SIZE))
+                .customPrivateKey(pem("PRIVATE KEY", PRIVATE_KEY_SIZE))
+                .engineAttributes(Collections.singletonList(EngineAttribute.builder().name("CHEF_AUTOMATE_ADMIN_PASSWORD").value("secret").build()))
+                .tags(Collections.singletonList(Tag.builder().key("team").value("infra").build()))
+                .build();
+    }
+
+    private static String pem(final String label, final int size) {
+        final StringBuilder builder = new StringBuilder(size + 64);
+        builder.append("-----BEGIN ").append(label).append("-----\n");
+        while (builder.length() < size) {
+            builder.append('A');
+        }
+        return builder.append("\n-----END ").append(label).append("-----").toString();
+    }
+}
@@ -0,0 +1,96 @@
+package software.amazon.opsworkscm.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CallbackSchedulerTest {
+
+    private static final int SERVER_COUNT = 100;
+    private static final int POLL_DELAY_SECONDS = 60;
+    private static final int SIMULATED_SECONDS = 20 * 60;
+    private static final long START_MILLIS = 1_700_000_000_000L;
+
+    private final CallbackScheduler scheduler = new CallbackScheduler();
+
+    @Test
+    public void testDelayIsDeterministicAndBounded() {
+        for (int i = 0; i < SERVER_COUNT; i++) {
+            final String serverName = "Server-" + i;
+            final int delay = scheduler.schedule(serverName, POLL_DELAY_SECONDS, START_MILLIS);
+
+            assertThat(delay).isEqualTo(scheduler.schedule(serverName, POLL_DELAY_SECONDS, START_MILLIS));
+            assertThat(delay).isBetween(POLL_DELAY_SECONDS - 29, POLL_DELAY_SECONDS);
+        }
+    }
+
+    @Test
+    public void testDelayIsNeverLengthened() {
+        for (int delay = CallbackScheduler.MIN_JITTERED_DELAY_SECONDS; delay <= 600; delay++) {
+            for (int i = 0; i < 10; i++) {
+                assertThat(scheduler.schedule("Server-" + i, delay, START_MILLIS + delay * 7L)).isBetween(delay - delay / 2 + 1, delay);
+            }
+        }
+    }
+
+    @Test
+    public void testShortDelaysAreNotJittered() {
+        assertThat(scheduler.schedule("Server-1", 0, START_MILLIS)).isEqualTo(0);
+        assertThat(scheduler.schedule("Server-1", 15, START_MILLIS)).isEqualTo(15);
+        assertThat(scheduler.schedule(null, POLL_DELAY_SECONDS, START_MILLIS)).isEqualTo(POLL_DELAY_SECONDS);
+    }
+
+    @Test
+    public void testServerKeepsItsPhase() {
+        long now = START_MILLIS;
+        long firstWakeUpSecond = -1;
+        for (int poll = 0; poll < 10; poll++) {
+            now += scheduler.schedule("Server-7", POLL_DELAY_SECONDS, now) * 1000L;
+            if (firstWakeUpSecond < 0) {
+                firstWakeUpSecond = now / 1000;
+            }
+            assertThat(Math.floorMod(now / 1000 - firstWakeUpSecond, 30L)).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void testHerdRequestRateIsFlattened() {
+        final Map<Long, Integer> lockstep = simulateWakeUps(false);
+        final Map<Long, Integer> jittered = simulateWakeUps(true);
+
+        final int lockstepPeak = peak(lockstep);
+        final int jitteredPeak = peak(jittered);
+
+        assertThat(lockstepPeak).isEqualTo(SERVER_COUNT);
+        assertThat(jitteredPeak)
+                .as("peak DescribeServers per second: %d in lockstep, %d jittered", lockstepPeak, jitteredPeak)
+                .isLessThanOrEqualTo(SERVER_COUNT / 10);
+        assertThat(total(jittered)).isBetween(total(lockstep), total(lockstep) * 5 / 4);
+    }
+
+    // Every server starts in the same second and polls until the simulation ends; returns wake-ups per second
+    private Map<Long, Integer> simulateWakeUps(final boolean jitter) {
+        final Map<Long, Integer> wakeUps = new HashMap<>();
+        for (int i = 0; i < SERVER_COUNT; i++) {
+            final String serverName = "Server-" + i;
+            long now = START_MILLIS;
+            while (now < START_MILLIS + SIMULATED_SECONDS * 1000L) {
+                final int delay = jitter ? scheduler.schedule(serverName, POLL_DELAY_SECONDS, now) : POLL_DELAY_SECONDS;
+                now += delay * 1000L;
+                wakeUps.merge(now / 1000, 1, Integer::sum);
+            }
+        }
+        return wakeUps;
+    }
+
+    private static int peak(final Map<Long, Integer> wakeUps) {
+        return wakeUps.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
+
+    private static int total(final Map<Long, Integer> wakeUps) {
+        return wakeUps.values().stream().mapToInt(Integer::intValue).sum();
+    }
+}
@@ -0,0 +1,119 @@
+package software.amazon.opsworkscm.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CircuitBreakerTest extends TestBase {
+
+    private long now = 1_000_000L;
+    private final CircuitBreaker breaker = new CircuitBreaker(() -> now);
+
+    @AfterEach
+    public void tearDown() {
+        CircuitBreaker.reset();
+    }
+
+    @Test
+    public void testOpensAfterABurstOfFailures() {
+        failTimes(CircuitBreaker.FAILURE_THRESHOLD - 1);
+        breaker.acquire();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(breaker::acquire)
+                .isInstanceOf(CircuitOpenException.class)
+                .hasMessageContaining(String.format("retry in %d ms", CircuitBreaker.OPEN_MILLIS));
+    }
+
+    @Test
+    public void testFailuresOutsideTheWindowDoNotOpen() {
+        failTimes(CircuitBreaker.FAILURE_THRESHOLD - 1);
+        now += CircuitBreaker.FAILURE_WINDOW_MILLIS + 1;
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void testSuccessfulProbeClosesTheCircuit() {
+        failTimes(CircuitBreaker.FAILURE_THRESHOLD);
+        now += CircuitBreaker.OPEN_MILLIS;
+
+        breaker.acquire();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThatThrownBy(breaker::acquire).isInstanceOf(CircuitOpenException.class);
+
+        breaker.onSuccess();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        breaker.acquire();
+    }
+
+    @Test
+    public void testFailedProbeReopensTheCircuit() {
+        failTimes(CircuitBreaker.FAILURE_THRESHOLD);
+        now += CircuitBreaker.OPEN_MILLIS;
+        breaker.acquire();
+
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(breaker::acquire).isInstanceOf(CircuitOpenException.class);
+    }
+
+    @Test
+    public void testLostProbeIsReplacedAfterTheOpenPeriod() {
+        failTimes(CircuitBreaker.FAILURE_THRESHOLD);
+        now += CircuitBreaker.OPEN_MILLIS;
+        breaker.acquire();
+
+        now += CircuitBreaker.OPEN_MILLIS + 1;
+
+        breaker.acquire();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+    }
+
+    @Test
+    public void testOnlyServerSideAndIoFailuresCount() {
+        assertThat(CircuitBreaker.isEndpointFailure(serviceUnavailableException())).isTrue();
+        assertThat(CircuitBreaker.isEndpointFailure(SdkClientException.create("Unable to execute HTTP request",
+                new UncheckedIOException(new SocketTimeoutException("Read timed out"))))).isTrue();
+        assertThat(CircuitBreaker.isEndpointFailure(SdkClientException.create("Unable to load credentials"))).isFalse();
+        assertThat(CircuitBreaker.isEndpointFailure(SdkClientException.create("Unable to marshall request",
+                new IllegalArgumentException("Parameter ServerName must not be null")))).isFalse();
+        assertThat(CircuitBreaker.isEndpointFailure(throttlingException())).isFalse();
+        assertThat(CircuitBreaker.isEndpointFailure(new IllegalStateException())).isFalse();
+    }
+
+    @Test
+    public void testThrottlingResetsTheFailureCount() {
+        failTimes(CircuitBreaker.FAILURE_THRESHOLD - 1);
+        breaker.onError(throttlingException());
+        breaker.onError(serviceUnavailableException());
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void testBreakersArePerAccountAndRegion() {
+        CircuitBreaker breaker = CircuitBreaker.forAccountAndRegion("111111111111", "us-east-1");
+
+        assertThat(CircuitBreaker.forAccountAndRegion("111111111111", "us-east-1")).isSameAs(breaker);
+        assertThat(CircuitBreaker.forAccountAndRegion("111111111111", "us-west-2")).isNotSameAs(breaker);
+        assertThat(CircuitBreaker.forAccountAndRegion("222222222222", "us-east-1")).isNotSameAs(breaker);
+    }
+
+    private void failTimes(final int times) {
+        for (int i = 0; i < times; i++) {
+            breaker.onFailure();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package software.amazon.opsworkscm.server;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.opsworkscm.OpsWorksCmClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ClientBuilderTest {
+
+    private static final String REGION = "us-east-1";
+    private static final String OTHER_REGION = "eu-west-1";
+    private static final int ITERATIONS = 50;
+
+    @Test
+    public void testClientIsReusedForSameRegion() {
+        assertThat(ClientBuilder.getClient(REGION)).isSameAs(ClientBuilder.getClient(REGION));
+    }
+
+    @Test
+    public void testClientsAreKeyedByRegion() {
+        assertThat(ClientBuilder.getClient(REGION)).isNotSameAs(ClientBuilder.getClient(OTHER_REGION));
+    }
+
+    @Test
+    public void testPooledClientIsNotRebuiltPerInvocation() {
+        final OpsWorksCmClient pooled = ClientBuilder.getClient(REGION);
+
+        assertThat(ClientBuilder.getClient(REGION)).isSameAs(pooled);
+        try (OpsWorksCmClient built = ClientBuilder.buildClient(REGION, "https://opsworks-cm.us-east-1.amazonaws.com")) {
+            assertThat(built).isNotSameAs(pooled);
+        }
+    }
+
+    @Test
+    @Disabled("Benchmark, run by hand")
+    public void benchmarkPooledClientInitAgainstBuildingPerInvocation() {
+        ClientBuilder.getClient(REGION);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            ClientBuilder.buildClient(REGION, "https://opsworks-cm.us-east-1.amazonaws.com").close();
+        }
+        final long builtNanos = (System.nanoTime() - start) / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            ClientBuilder.getClient(REGION);
+        }
+        final long pooledNanos = (System.nanoTime() - start) / ITERATIONS;
+
+        System.out.printf("client init per invocation: built %d ns, pooled %d ns%n", builtNanos, pooledNanos);
+    }
+
+    @Test
+    public void testTaggingClientIsReusedForSameRegion() {
+        assertThat(ClientBuilder.getTaggingClient(REGION)).isSameAs(ClientBuilder.getTaggingClient(REGION));
+    }
+}
@@ -0,0 +1,118 @@
+package software.amazon.opsworkscm.server;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.opsworkscm.OpsWorksCmClient;
+import software.amazon.awssdk.services.opsworkscm.model.DescribeServersRequest;
+import software.amazon.awssdk.services.opsworkscm.model.DescribeServersResponse;
+import software.amazon.awssdk.services.opsworkscm.model.OpsWorksCmException;
+import software.amazon.awssdk.services.opsworkscm.model.Server;
+import software.amazon.awssdk.services.opsworkscm.model.TagResourceRequest;
+import software.amazon.awssdk.services.opsworkscm.model.TagResourceResponse;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.opsworkscm.server.utils.LoggerWrapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ClientWrapperTest {
+
+    private static final String SERVER_NAME = "ServerName";
+    private static final String SERVER_ARN = "arn:aws:opsworks-cm:us-east-1:123123123123:server/ServerName";
+
+    private AmazonWebServicesClientProxy proxy;
+    private ClientWrapper client;
+
+    @BeforeEach
+    public void setup() {
+        proxy = mock(AmazonWebServicesClientProxy.class);
+        ResourceModel model = ResourceModel.builder()
+                .serverName(SERVER_NAME)
+                .tags(ImmutableList.of(Tag.builder().key("k").value("v").build()))
+                .build();
+        client = new ClientWrapper(mock(OpsWorksCmClient.class), model, ResourceModel.builder().build(), proxy, new LoggerWrapper(mock(Logger.class)));
+
+        doReturn(DescribeServersResponse.builder().servers(Server.builder().serverName(SERVER_NAME).serverArn(SERVER_ARN).build()).build())
+                .when(proxy).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        doReturn(TagResourceResponse.builder().build())
+                .when(proxy).injectCredentialsAndInvokeV2(any(TagResourceRequest.class), any());
+    }
+
+    @Test
+    public void testDescribeServerIsMemoized() {
+        client.describeServer(SERVER_NAME);
+        client.describeServer(SERVER_NAME);
+
+        verify(proxy, times(1)).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+    }
+
+    @Test
+    public void testMutationDropsDescribeMemo() {
+        client.describeServer(SERVER_NAME);
+        client.tagServer();
+        client.describeServer(SERVER_NAME);
+
+        verify(proxy, times(2)).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        assertThat(client.getServerArn()).isEqualTo(SERVER_ARN);
+    }
+
+    @Test
+    public void testCallsGoThroughTheRateLimiter() {
+        List<Long> sleeps = new ArrayList<>();
+        ApiRateLimiter limiter = ApiRateLimiter.forAccountAndRegion("333333333333", "us-east-1",
+                TypeConfigurationModel.builder().describeServersRequestsPerSecond(1).build(), sleeps::add);
+        ClientWrapper limitedClient = new ClientWrapper(mock(OpsWorksCmClient.class), ResourceModel.builder().serverName(SERVER_NAME).build(),
+                null, proxy, new LoggerWrapper(mock(Logger.class)), limiter);
+
+        limitedClient.refreshServer(SERVER_NAME);
+        limitedClient.refreshServer(SERVER_NAME);
+
+        assertThat(sleeps).hasSize(1);
+        assertThat(limitedClient.getRateLimitWaitMillis()).isEqualTo(sleeps.get(0));
+        assertThat(limitedClient.getRateLimitSummary())
+                .startsWith(String.format("Rate limit wait: %d ms", sleeps.get(0)))
+                .contains("DescribeServers: 2 acquisitions, 1 delayed");
+        verify(proxy, times(2)).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        ApiRateLimiter.reset();
+    }
+
+    @Test
+    public void testServiceErrorsOpenTheCircuit() {
+        doThrow(TestBase.serviceUnavailableException()).when(proxy).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        ClientWrapper guardedClient = new ClientWrapper(mock(OpsWorksCmClient.class), ResourceModel.builder().serverName(SERVER_NAME).build(),
+                null, proxy, new LoggerWrapper(mock(Logger.class)), ApiRateLimiter.UNLIMITED, new CircuitBreaker(() -> 0L));
+
+        for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD; i++) {
+            assertThatThrownBy(() -> guardedClient.refreshServer(SERVER_NAME)).isInstanceOf(OpsWorksCmException.class);
+        }
+        assertThatThrownBy(() -> guardedClient.refreshServer(SERVER_NAME)).isInstanceOf(CircuitOpenException.class);
+
+        verify(proxy, times(CircuitBreaker.FAILURE_THRESHOLD)).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+    }
+
+    @Test
+    public void testUnlimitedClientHasNoRateLimitSummary() {
+        client.refreshServer(SERVER_NAME);
+
+        assertThat(client.getRateLimitSummary()).isNull();
+    }
+
+    @Test
+    public void testKnownServerArnSkipsDescribe() {
+        client.setServerArn(SERVER_ARN);
+        client.tagServer();
+
+        verify(proxy, times(0)).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+    }
+}
@@ -3,9 +3,14 @@ package software.amazon.opsworkscm.server;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.opsworkscm.model.CreateServerRequest;
 import software.amazon.awssdk.services.opsworkscm.model.CreateServerResponse;
+import software.amazon.awssdk.services.opsworkscm.model.DescribeEventsRequest;
+import software.amazon.awssdk.services.opsworkscm.model.DescribeEventsResponse;
+import software.amazon.awssdk.services.opsworkscm.model.DescribeServersRequest;
 import software.amazon.awssdk.services.opsworkscm.model.DescribeServersResponse;
 import software.amazon.awssdk.services.opsworkscm.model.InvalidStateException;
 import software.amazon.awssdk.services.opsworkscm.model.LimitExceededException;
@@ -13,12 +18,14 @@ import software.amazon.awssdk.services.opsworkscm.model.OpsWorksCmException;
 import software.amazon.awssdk.services.opsworkscm.model.ResourceAlreadyExistsException;
 import software.amazon.awssdk.services.opsworkscm.model.ResourceNotFoundException;
 import software.amazon.awssdk.services.opsworkscm.model.Server;
+import software.amazon.awssdk.services.opsworkscm.model.ServerEvent;
 import software.amazon.awssdk.services.opsworkscm.model.ValidationException;
 import software.amazon.cloudformation.exceptions.CfnAlreadyExistsException;
 import software.amazon.cloudformation.exceptions.CfnInternalFailureException;
 import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
 import software.amazon.cloudformation.exceptions.CfnNotStabilizedException;
 import software.amazon.cloudformation.exceptions.CfnServiceLimitExceededException;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.HandlerErrorCode;
 import software.amazon.cloudformation.proxy.Logger;
@@ -26,15 +33,24 @@ import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 public class CreateHandlerTest extends TestBase {
@@ -45,6 +61,9 @@ public class CreateHandlerTest extends TestBase {
     @Mock
     private Logger logger;
 
+    @TempDir
+    Path tempDir;
+
     CreateHandler handler;
     CallbackContext callbackContext;
     ResourceModel model;
@@ -61,12 +80,17 @@ public class CreateHandlerTest extends TestBase {
     private static final String SERVICE_ROLE = "arn:aws:iam::012345678912:role/service-role/aws-opsworks-cm-service-role";
     private static final String ENDPOINT = "myendpoint.com";
     private static final String SERVER_ARN = "arn:aws:opsworks-cm:us-east-1:123123123123:server/ServerName";
+    private static final long SIMULATED_CREATE_MILLIS = 18 * 60 * 1000L;
 
     @BeforeEach
     public void setup() {
         proxy = mock(AmazonWebServicesClientProxy.class);
         logger = mock(Logger.class);
         handler = new CreateHandler();
+        handler.rateLimiter = ApiRateLimiter.UNLIMITED;
+        handler.circuitBreaker = CircuitBreaker.DISABLED;
+        handler.stabilizationStats = new StabilizationStats(tempDir.resolve("stats.properties"));
+        handler.statusWatcher = new ServerStatusWatcher();
 
         callbackContext = CallbackContext.builder()
                 .stabilizationRetryTimes(0)
@@ -180,6 +204,294 @@ public class CreateHandlerTest extends TestBase {
         assertThat(actualServerName.length()).isEqualTo(40);
     }
 
+    @Test
+    public void testCreateRecordsServerFromCreateResponse() {
+        doReturn(CreateServerResponse.builder().server(Server.builder().serverArn(SERVER_ARN).status("CREATING").build()).build())
+                .when(proxy).injectCredentialsAndInvokeV2(any(), any());
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, callbackContext, logger);
+        assertThat(response.getCallbackContext().getServerArn()).isEqualTo(SERVER_ARN);
+        assertThat(response.getCallbackContext().getLastServerStatus()).isEqualTo("CREATING");
+    }
+
+    @Test
+    public void testLearnedCreateDurationReducesInvocationsPerLifecycle() {
+        final TickingClock clock = new TickingClock(1_000_000L, 0L);
+        handler.clock = clock;
+        handler.sleeper = clock::advance;
+
+        final int firstLifecycleInvocations = simulateCreateLifecycle(clock);
+        simulateCreateLifecycle(clock);
+        simulateCreateLifecycle(clock);
+        final int learnedLifecycleInvocations = simulateCreateLifecycle(clock);
+
+        assertThat(learnedLifecycleInvocations)
+                .as("invocations per create: %d without history, %d with history", firstLifecycleInvocations, learnedLifecycleInvocations)
+                .isLessThan(firstLifecycleInvocations / 2);
+    }
+
+    @Test
+    public void testFirstCallbackDelayIsPredictedFromHistory() {
+        final String key = StabilizationStats.key(CreateHandler.OPERATION, model);
+        for (int i = 0; i < StabilizationStats.MIN_SAMPLES; i++) {
+            handler.stabilizationStats.record(key, 300);
+        }
+        doReturn(CreateServerResponse.builder().build()).when(proxy).injectCredentialsAndInvokeV2(any(), any());
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, callbackContext, logger);
+
+        assertThat(response.getCallbackContext().getExpectedStabilizationSeconds()).isEqualTo(300);
+        assertJitteredDelay(response.getCallbackDelaySeconds(), 300);
+    }
+
+    @Test
+    public void testCompletionIsRecordedAtThePreviousCheck() {
+        final TickingClock clock = new TickingClock(10_000_000L, 0L);
+        handler.clock = clock;
+        doReturn(getDescribeServerResponse("HEALTHY"))
+                .when(proxy).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+
+        for (int i = 0; i < StabilizationStats.MIN_SAMPLES; i++) {
+            final CallbackContext context = CallbackContext.builder()
+                    .stabilizationStarted(true)
+                    .stabilizationStartTime(clock.millis() - 300_000L)
+                    .lastStatusObservedAt(clock.millis() - 100_000L)
+                    .build();
+            assertThat(handler.handleRequest(proxy, request, context, logger).getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        }
+
+        assertThat(handler.stabilizationStats.estimateSeconds(StabilizationStats.key(CreateHandler.OPERATION, model))).isEqualTo(200);
+    }
+
+    @Test
+    public void testShortPollsUntilHealthyNearExpectedCompletion() {
+        final TickingClock clock = shortPollClock();
+        final long startTime = clock.millis() - 290_000L;
+        final long healthyAt = startTime + 305_000L;
+        stubCreatingUntil(clock, healthyAt);
+        final CallbackContext context = CallbackContext.builder()
+                .stabilizationStarted(true)
+                .stabilizationStartTime(startTime)
+                .expectedStabilizationSeconds(300)
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, context, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(clock.millis()).isEqualTo(healthyAt);
+        verify(proxy, times(4)).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+    }
+
+    @Test
+    public void testNoShortPollWithoutExpectedCompletion() {
+        final TickingClock clock = shortPollClock();
+        stubCreatingUntil(clock, Long.MAX_VALUE);
+        final CallbackContext context = CallbackContext.builder()
+                .stabilizationStarted(true)
+                .stabilizationStartTime(clock.millis() - 290_000L)
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, context, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        verify(proxy, times(1)).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+    }
+
+    @Test
+    public void testShortPollHandsBackBeforeInvocationTimeRunsOut() {
+        final TickingClock clock = shortPollClock();
+        final long invocationStart = clock.millis();
+        stubCreatingUntil(clock, Long.MAX_VALUE);
+        final CallbackContext context = CallbackContext.builder()
+                .stabilizationStarted(true)
+                .stabilizationStartTime(invocationStart - 300_000L)
+                .expectedStabilizationSeconds(300)
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, context, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackDelaySeconds()).isGreaterThan(0);
+        assertThat(clock.millis() - invocationStart)
+                .isLessThanOrEqualTo(BaseOpsWorksCMHandler.INVOCATION_TIME_BUDGET_MILLIS - BaseOpsWorksCMHandler.SHORT_POLL_TIME_RESERVE_MILLIS);
+        verify(proxy, atLeast(2)).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        // Handing back for a one minute wait is not worth an event lookup
+        verify(proxy, never()).injectCredentialsAndInvokeV2(any(DescribeEventsRequest.class), any());
+    }
+
+    @Test
+    public void testEventsAreOnlyReadBeforeALongWait() {
+        final long startTime = System.currentTimeMillis() - 60_000L;
+        doReturn(getDescribeServerResponse("CREATING"))
+                .when(proxy).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        final CallbackContext context = CallbackContext.builder()
+                .stabilizationStarted(true)
+                .stabilizationStartTime(startTime)
+                .lastEventTimestamp(startTime)
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, context, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackDelaySeconds()).isLessThan(BaseOpsWorksCMHandler.MIN_EVENT_LOOKUP_DELAY_SECONDS);
+        verify(proxy, never()).injectCredentialsAndInvokeV2(any(DescribeEventsRequest.class), any());
+    }
+
+    @Test
+    public void testFailureEventSchedulesEarlyCheck() {
+        final long startTime = System.currentTimeMillis() - 60_000L;
+        doReturn(getDescribeServerResponse("CREATING"))
+                .when(proxy).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        doReturn(DescribeEventsResponse.builder().serverEvents(
+                ServerEvent.builder().createdAt(Instant.ofEpochMilli(startTime + 50_000L)).message("Setup step failed: chef-server-ctl reconfigure").build(),
+                ServerEvent.builder().createdAt(Instant.ofEpochMilli(startTime + 40_000L)).message("Instance launched").build()).build())
+                .when(proxy).injectCredentialsAndInvokeV2(any(DescribeEventsRequest.class), any());
+        final CallbackContext context = CallbackContext.builder()
+                .stabilizationStarted(true)
+                .stabilizationStartTime(startTime)
+                .expectedStabilizationSeconds(1200)
+                .lastEventTimestamp(startTime)
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, context, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackDelaySeconds()).isEqualTo(BaseOpsWorksCMHandler.EVENT_FOLLOW_UP_DELAY_SECONDS);
+        assertThat(response.getCallbackContext().getLastEventTimestamp()).isEqualTo(startTime + 50_000L);
+    }
+
+    @Test
+    public void testStuckServerFailsAfterDefaultDeadline() {
+        doReturn(DescribeServersResponse.builder().servers(Server.builder()
+                .serverName(SERVER_NAME).status("BACKING_UP").statusReason("Backup in progress").build()).build())
+                .when(proxy).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        final CallbackContext context = CallbackContext.builder()
+                .stabilizationStarted(true)
+                .stabilizationStartTime(System.currentTimeMillis() - (CreateHandler.DEFAULT_STABILIZATION_TIMEOUT_MINUTES + 1) * 60_000L)
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, context, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.NotStabilized);
+        assertThat(response.getMessage()).isEqualTo(String.format(
+                "Server %s did not stabilize within %d minutes. Last observed status: BACKING_UP. With reason: Backup in progress",
+                SERVER_NAME, CreateHandler.DEFAULT_STABILIZATION_TIMEOUT_MINUTES));
+    }
+
+    @Test
+    public void testDeadlineFromTypeConfiguration() {
+        doReturn(getDescribeServerResponse("CREATING"))
+                .when(proxy).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        final TypeConfigurationModel typeConfiguration = TypeConfigurationModel.builder()
+                .createStabilizationTimeoutMinutes(30)
+                .build();
+        final CallbackContext context = CallbackContext.builder()
+                .stabilizationStarted(true)
+                .stabilizationStartTime(System.currentTimeMillis() - 45 * 60_000L)
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+                handler.handleRequest(proxy, request, context, logger, typeConfiguration);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.NotStabilized);
+        assertThat(response.getMessage()).contains("within 30 minutes", "Last observed status: CREATING");
+    }
+
+    @Test
+    public void testMissingStartTimeStartsDeadlineNow() {
+        doReturn(getDescribeServerResponse("CREATING"))
+                .when(proxy).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        final CallbackContext context = CallbackContext.builder().stabilizationStarted(true).build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, context, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackContext().getStabilizationStartTime()).isGreaterThan(0L);
+    }
+
+    @Test
+    public void testMaintenanceRunIsNotPolledEveryMinute() {
+        final long windowStart = Instant.parse("2026-10-14T08:00:00Z").toEpochMilli();
+        final long maintenanceEnd = windowStart + 50 * 60_000L;
+        final TickingClock clock = new TickingClock(windowStart + 5 * 60_000L, 0L);
+        handler.clock = clock;
+        final AtomicInteger describeCalls = new AtomicInteger();
+        doAnswer(invocation -> {
+            describeCalls.incrementAndGet();
+            return DescribeServersResponse.builder()
+                    .servers(Server.builder()
+                            .serverName(SERVER_NAME)
+                            .preferredMaintenanceWindow("Wed:08:00")
+                            .status(clock.millis() >= maintenanceEnd ? "HEALTHY" : "UNDER_MAINTENANCE")
+                            .build())
+                    .build();
+        }).when(proxy).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        CallbackContext context = CallbackContext.builder()
+                .stabilizationStarted(true)
+                .stabilizationStartTime(clock.millis())
+                .build();
+
+        ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, context, logger);
+        assertJitteredDelay(response.getCallbackDelaySeconds(), BaseOpsWorksCMHandler.MAX_PREDICTED_CALLBACK_DELAY_SECONDS);
+        while (response.getStatus() == OperationStatus.IN_PROGRESS) {
+            clock.advance(response.getCallbackDelaySeconds() * 1000L);
+            context = response.getCallbackContext();
+            response = handler.handleRequest(proxy, request, context, logger);
+        }
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(describeCalls.get()).isLessThanOrEqualTo(7);
+    }
+
+    private TickingClock shortPollClock() {
+        final TickingClock clock = new TickingClock(10_000_000L, 0L);
+        handler.clock = clock;
+        handler.sleeper = clock::advance;
+        return clock;
+    }
+
+    private void stubCreatingUntil(final TickingClock clock, final long healthyAt) {
+        doAnswer(invocation -> DescribeServersResponse.builder()
+                .servers(Server.builder()
+                        .serverName(SERVER_NAME)
+                        .serverArn(SERVER_ARN)
+                        .status(clock.millis() >= healthyAt ? "HEALTHY" : "CREATING")
+                        .build())
+                .build())
+                .when(proxy).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+    }
+
+    private int simulateCreateLifecycle(final TickingClock clock) {
+        final long[] createdAt = new long[1];
+        doAnswer(invocation -> {
+            if (invocation.getArgument(0) instanceof CreateServerRequest) {
+                createdAt[0] = clock.millis();
+                return CreateServerResponse.builder().build();
+            }
+            if (invocation.getArgument(0) instanceof DescribeEventsRequest) {
+                return DescribeEventsResponse.builder().build();
+            }
+            final String status = clock.millis() - createdAt[0] >= SIMULATED_CREATE_MILLIS ? "HEALTHY" : "CREATING";
+            return DescribeServersResponse.builder()
+                    .servers(Server.builder().serverName(SERVER_NAME).serverArn(SERVER_ARN).status(status).build())
+                    .build();
+        }).when(proxy).injectCredentialsAndInvokeV2(any(), any());
+
+        CallbackContext context = CallbackContext.builder().build();
+        int invocations = 0;
+        while (true) {
+            final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, context, logger);
+            invocations++;
+            if (response.getStatus() != OperationStatus.IN_PROGRESS) {
+                assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+                return invocations;
+            }
+            context = response.getCallbackContext();
+            clock.advance(response.getCallbackDelaySeconds() * 1000L);
+        }
+    }
+
     @Test
     public void testCreateServerAlreadyExists() {
         ResourceAlreadyExistsException myException = ResourceAlreadyExistsException.builder().message("Whatever API says").build();
@@ -365,11 +677,13 @@ public class CreateHandlerTest extends TestBase {
                 .build();
 
         String[] transientStates = new String[]{"BACKING_UP", "MODIFYING", "RESTORING", "UNDER_MAINTENANCE", "CREATING"};
-        for (String state : transientStates) {
+        int[] expectedDelays = new int[]{600, 60, 60, 600, 60};
+        for (int i = 0; i < transientStates.length; i++) {
+            String state = transientStates[i];
             doReturn(DescribeServersResponse.builder().servers(Server.builder().serverName(SERVER_NAME).status(state).build()).build()).when(proxy).injectCredentialsAndInvokeV2(any(), any());
             final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, callbackContext, logger);
             assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
-            assertThat(response.getCallbackDelaySeconds()).isEqualTo(60);
+            assertJitteredDelay(response.getCallbackDelaySeconds(), expectedDelays[i]);
             assertThat(response.getResourceModel()).isEqualTo(request.getDesiredResourceState());
             assertThat(response.getResourceModels()).isNull();
             assertThat(response.getMessage()).isNull();
@@ -377,6 +691,84 @@ public class CreateHandlerTest extends TestBase {
         }
     }
 
+    @Test
+    public void testThrottledCreateServerIsRetriedLater() {
+        doThrow(throttlingException()).when(proxy).injectCredentialsAndInvokeV2(any(CreateServerRequest.class), any());
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, callbackContext, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackContext().isStabilizationStarted()).isFalse();
+        assertThat(response.getCallbackContext().getServiceRetryTimes()).isEqualTo(1);
+        assertThat(response.getCallbackDelaySeconds()).isEqualTo(BaseOpsWorksCMHandler.SERVICE_RETRY_BASE_DELAY_SECONDS);
+    }
+
+    @Test
+    public void testServiceErrorFromCreateServerIsNotRetried() {
+        doThrow(serviceUnavailableException()).when(proxy).injectCredentialsAndInvokeV2(any(CreateServerRequest.class), any());
+
+        assertThatThrownBy(() -> handler.handleRequest(proxy, request, callbackContext, logger))
+                .isInstanceOf(CfnInvalidRequestException.class);
+    }
+
+    @Test
+    public void testServiceErrorsDuringStabilizationBackOff() {
+        doThrow(serviceUnavailableException()).when(proxy).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        CallbackContext context = CallbackContext.builder().stabilizationStarted(true).build();
+
+        int[] expectedDelays = new int[]{5, 10, 20, 40, 80, 160, 300, 300};
+        for (int expectedDelay : expectedDelays) {
+            final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, context, logger);
+            assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+            assertJitteredDelay(response.getCallbackDelaySeconds(), expectedDelay);
+            context = response.getCallbackContext();
+        }
+        assertThat(context.getServiceRetryTimes()).isEqualTo(expectedDelays.length);
+    }
+
+    @Test
+    public void testOpenCircuitDelaysStabilizationWithoutCallingTheService() {
+        handler.circuitBreaker = new CircuitBreaker(() -> 0L);
+        for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD; i++) {
+            handler.circuitBreaker.onFailure();
+        }
+        final CallbackContext context = CallbackContext.builder().stabilizationStarted(true).build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, context, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertJitteredDelay(response.getCallbackDelaySeconds(), (int) (CircuitBreaker.OPEN_MILLIS / 1000));
+        assertThat(response.getCallbackContext().getServiceRetryTimes()).isEqualTo(0);
+        verify(proxy, never()).injectCredentialsAndInvokeV2(any(), any());
+    }
+
+    @Test
+    public void testSuccessfulCheckResetsServiceRetries() {
+        doReturn(DescribeServersResponse.builder().servers(Server.builder().serverName(SERVER_NAME).status("CREATING").build()).build())
+                .when(proxy).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        final CallbackContext context = CallbackContext.builder()
+                .stabilizationStarted(true)
+                .serviceRetryTimes(BaseOpsWorksCMHandler.MAX_SERVICE_RETRIES - 1)
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, context, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackContext().getServiceRetryTimes()).isEqualTo(0);
+    }
+
+    @Test
+    public void testGivesUpAfterMaxServiceRetries() {
+        doThrow(throttlingException()).when(proxy).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        final CallbackContext context = CallbackContext.builder()
+                .stabilizationStarted(true)
+                .serviceRetryTimes(BaseOpsWorksCMHandler.MAX_SERVICE_RETRIES)
+                .build();
+
+        assertThatThrownBy(() -> handler.handleRequest(proxy, request, context, logger))
+                .isInstanceOf(CfnThrottlingException.class);
+    }
+
     @Test
     public void testCreateStabilizeFailsOnNonTransientFailureStates() {
         CallbackContext callbackContext = CallbackContext.builder()
@@ -427,7 +819,7 @@ public class CreateHandlerTest extends TestBase {
         assertThat(executeResponse.getCallbackContext()).isNotNull();
         assertThat(executeResponse.getCallbackContext().isStabilizationStarted()).isTrue();
         assertThat(executeResponse.getCallbackContext().getStabilizationRetryTimes()).isEqualTo(0);
-        assertThat(executeResponse.getCallbackDelaySeconds()).isEqualTo(60);
+        assertJitteredDelay(executeResponse.getCallbackDelaySeconds(), 60);
         assertThat(executeResponse.getResourceModel()).isEqualTo(request.getDesiredResourceState());
         assertThat(executeResponse.getResourceModels()).isNull();
         assertThat(executeResponse.getMessage()).isNull();
@@ -441,12 +833,16 @@ public class CreateHandlerTest extends TestBase {
         assertThat(stabilizeResponse.getCallbackContext()).isNotNull();
         assertThat(stabilizeResponse.getCallbackContext().isStabilizationStarted()).isTrue();
         assertThat(stabilizeResponse.getCallbackContext().getStabilizationRetryTimes()).isEqualTo(1);
-        assertThat(stabilizeResponse.getCallbackDelaySeconds()).isEqualTo(60);
+        assertJitteredDelay(stabilizeResponse.getCallbackDelaySeconds(), 60);
         assertThat(stabilizeResponse.getResourceModel()).isEqualTo(request.getDesiredResourceState());
         assertThat(stabilizeResponse.getResourceModels()).isNull();
         assertThat(stabilizeResponse.getMessage()).isNull();
         assertThat(stabilizeResponse.getErrorCode()).isNull();
 
+        assertThat(stabilizeResponse.getCallbackContext().getServerArn()).isEqualTo(SERVER_ARN);
+        assertThat(stabilizeResponse.getCallbackContext().getLastServerStatus()).isEqualTo("CREATING");
+        assertThat(stabilizeResponse.getCallbackContext().getLastStatusObservedAt()).isPositive();
+
         doReturn(getDescribeServerResponse("HEALTHY")).when(proxy).injectCredentialsAndInvokeV2(any(), any());
         stabilizeResponse = handler.handleRequest(proxy, request, executeResponse.getCallbackContext(), logger);
         assertThat(stabilizeResponse).isNotNull();
@@ -3,9 +3,12 @@ package software.amazon.opsworkscm.server;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.opsworkscm.model.DeleteServerRequest;
 import software.amazon.awssdk.services.opsworkscm.model.DeleteServerResponse;
+import software.amazon.awssdk.services.opsworkscm.model.DescribeServersRequest;
 import software.amazon.awssdk.services.opsworkscm.model.DescribeServersResponse;
 import software.amazon.awssdk.services.opsworkscm.model.InvalidStateException;
 import software.amazon.awssdk.services.opsworkscm.model.ResourceNotFoundException;
@@ -21,14 +24,19 @@ import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 public class DeleteHandlerTest extends TestBase {
@@ -39,6 +47,9 @@ public class DeleteHandlerTest extends TestBase {
     @Mock
     private Logger logger;
 
+    @TempDir
+    Path tempDir;
+
     DeleteHandler handler;
     CallbackContext callbackContext;
     ResourceModel model;
@@ -62,6 +73,10 @@ public class DeleteHandlerTest extends TestBase {
         proxy = mock(AmazonWebServicesClientProxy.class);
         logger = mock(Logger.class);
         handler = new DeleteHandler();
+        handler.rateLimiter = ApiRateLimiter.UNLIMITED;
+        handler.circuitBreaker = CircuitBreaker.DISABLED;
+        handler.stabilizationStats = new StabilizationStats(tempDir.resolve("stats.properties"));
+        handler.statusWatcher = new ServerStatusWatcher();
 
         callbackContext = CallbackContext.builder()
                 .stabilizationRetryTimes(0)
@@ -334,6 +349,116 @@ public class DeleteHandlerTest extends TestBase {
         assertThat(stabilizeResponse.getCallbackDelaySeconds()).isEqualTo(0);
     }
 
+    @Test
+    public void testShortPollsUntilDeletedNearExpectedCompletion() {
+        final TickingClock clock = new TickingClock(10_000_000L, 0L);
+        handler.clock = clock;
+        handler.sleeper = clock::advance;
+        final long startTime = clock.millis() - 100_000L;
+        final long deletedAt = startTime + 112_000L;
+        doAnswer(invocation -> {
+            if (clock.millis() >= deletedAt) {
+                throw ResourceNotFoundException.builder().build();
+            }
+            return DescribeServersResponse.builder().servers(Server.builder().serverName(SERVER_NAME).status("DELETING").build()).build();
+        }).when(proxy).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        final CallbackContext context = CallbackContext.builder()
+                .stabilizationStarted(true)
+                .stabilizationStartTime(startTime)
+                .expectedStabilizationSeconds(110)
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, context, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        verify(proxy, times(4)).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+    }
+
+    @Test
+    public void testStuckServerFailsAfterDeadline() {
+        doReturn(DescribeServersResponse.builder().servers(Server.builder()
+                .serverName(SERVER_NAME).status("MODIFYING").statusReason("Wedged").build()).build())
+                .when(proxy).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        final CallbackContext context = CallbackContext.builder()
+                .stabilizationStarted(true)
+                .stabilizationStartTime(System.currentTimeMillis() - (DeleteHandler.DEFAULT_STABILIZATION_TIMEOUT_MINUTES + 1) * 60_000L)
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, context, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.NotStabilized);
+        assertThat(response.getMessage()).isEqualTo(String.format(
+                "Server %s did not stabilize within %d minutes. Last observed status: MODIFYING. With reason: Wedged",
+                SERVER_NAME, DeleteHandler.DEFAULT_STABILIZATION_TIMEOUT_MINUTES));
+    }
+
+    @Test
+    public void testExecuteSkipsDeleteWhenAlreadyDeleting() {
+        doReturn(DescribeServersResponse.builder().servers(Server.builder().serverName(SERVER_NAME).status("DELETING").build()).build())
+                .when(proxy).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, callbackContext, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackContext().isStabilizationStarted()).isTrue();
+        assertThat(response.getCallbackDelaySeconds()).isEqualTo(15);
+        verify(proxy, never()).injectCredentialsAndInvokeV2(any(DeleteServerRequest.class), any());
+    }
+
+    @Test
+    public void testExecuteWaitsWhileServerIsBusy() {
+        for (String state : new String[]{"BACKING_UP", "MODIFYING", "RESTORING"}) {
+            doReturn(DescribeServersResponse.builder().servers(Server.builder().serverName(SERVER_NAME).status(state).build()).build())
+                    .when(proxy).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+
+            final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, callbackContext, logger);
+
+            assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+            assertThat(response.getCallbackContext().isStabilizationStarted()).isFalse();
+            assertThat(response.getCallbackDelaySeconds()).isEqualTo(DeleteHandler.BUSY_SERVER_CALLBACK_DELAY_SECONDS);
+            assertThat(response.getCallbackContext().getBusyWaitStartTime()).isGreaterThan(0L);
+        }
+        verify(proxy, never()).injectCredentialsAndInvokeV2(any(DeleteServerRequest.class), any());
+    }
+
+    @Test
+    public void testExecuteGivesUpOnServerThatStaysBusy() {
+        doReturn(DescribeServersResponse.builder().servers(Server.builder().serverName(SERVER_NAME).status("BACKING_UP").build()).build())
+                .when(proxy).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        callbackContext.setBusyWaitStartTime(System.currentTimeMillis() - (DeleteHandler.DEFAULT_STABILIZATION_TIMEOUT_MINUTES + 1) * 60_000L);
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, callbackContext, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.NotStabilized);
+        verify(proxy, never()).injectCredentialsAndInvokeV2(any(DeleteServerRequest.class), any());
+    }
+
+    @Test
+    public void testExecuteDeletesOnceServerIsNoLongerBusy() {
+        doReturn(DescribeServersResponse.builder().servers(Server.builder().serverName(SERVER_NAME).status("HEALTHY").build()).build())
+                .when(proxy).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        doReturn(DeleteServerResponse.builder().build())
+                .when(proxy).injectCredentialsAndInvokeV2(any(DeleteServerRequest.class), any());
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, callbackContext, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackContext().isStabilizationStarted()).isTrue();
+        verify(proxy, times(1)).injectCredentialsAndInvokeV2(any(DeleteServerRequest.class), any());
+    }
+
+    @Test
+    public void testOperationStillInProgressMatchesOnlyThisServer() {
+        String message = "Cannot delete the server 'ServerName'. The current operation on the server is still in progress. (Service: OpsWorksCm)";
+
+        assertThat(DeleteHandler.isOperationStillInProgress(message, SERVER_NAME)).isTrue();
+        assertThat(DeleteHandler.isOperationStillInProgress(message, "OtherServer")).isFalse();
+        assertThat(DeleteHandler.isOperationStillInProgress("come on..", SERVER_NAME)).isFalse();
+        assertThat(DeleteHandler.isOperationStillInProgress(null, SERVER_NAME)).isFalse();
+    }
+
     private ProgressEvent<ResourceModel, CallbackContext> assertStabilizeSuccess(ResourceHandlerRequest<ResourceModel> request) {
         return assertStabilizeSuccess("DELETING", request);
     }
@@ -347,7 +472,7 @@ public class DeleteHandlerTest extends TestBase {
         assertThat(executeResponse.getCallbackContext()).isNotNull();
         assertThat(executeResponse.getCallbackContext().isStabilizationStarted()).isTrue();
         assertThat(executeResponse.getCallbackContext().getStabilizationRetryTimes()).isEqualTo(0);
-        assertThat(executeResponse.getCallbackDelaySeconds()).isEqualTo(60);
+        assertThat(executeResponse.getCallbackDelaySeconds()).isEqualTo(15);
         assertThat(executeResponse.getResourceModel()).isEqualTo(request.getDesiredResourceState());
         assertThat(executeResponse.getResourceModels()).isNull();
         assertThat(executeResponse.getMessage()).isNull();
@@ -361,7 +486,7 @@ public class DeleteHandlerTest extends TestBase {
         assertThat(stabilizeResponse.getCallbackContext()).isNotNull();
         assertThat(stabilizeResponse.getCallbackContext().isStabilizationStarted()).isTrue();
         assertThat(stabilizeResponse.getCallbackContext().getStabilizationRetryTimes()).isEqualTo(1);
-        assertThat(stabilizeResponse.getCallbackDelaySeconds()).isEqualTo(60);
+        assertJitteredDelay(stabilizeResponse.getCallbackDelaySeconds(), "DELETING".equals(stabilizeStatus) ? 15 : 60);
         assertThat(stabilizeResponse.getResourceModel()).isEqualTo(request.getDesiredResourceState());
         assertThat(stabilizeResponse.getResourceModels()).isNull();
         assertThat(stabilizeResponse.getMessage()).isNull();
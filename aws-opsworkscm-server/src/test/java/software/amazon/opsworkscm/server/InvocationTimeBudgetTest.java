@@ -0,0 +1,36 @@
+package software.amazon.opsworkscm.server;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Credentials;
+import software.amazon.cloudformation.proxy.LoggerProxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class InvocationTimeBudgetTest {
+
+    private static final long FALLBACK_MILLIS = 60_000L;
+
+    @Test
+    public void testRemainingTimeIsReadFromTheProxy() {
+        final AmazonWebServicesClientProxy proxy = new AmazonWebServicesClientProxy(new LoggerProxy(),
+                new Credentials("accessKeyId", "secretAccessKey", "sessionToken"), () -> 240_000L);
+
+        assertThat(InvocationTimeBudget.remainingMillis(proxy, FALLBACK_MILLIS)).isEqualTo(240_000L);
+    }
+
+    @Test
+    public void testFallbackWithoutRemainingTime() {
+        assertThat(InvocationTimeBudget.remainingMillis(mock(AmazonWebServicesClientProxy.class), FALLBACK_MILLIS)).isEqualTo(FALLBACK_MILLIS);
+        assertThat(InvocationTimeBudget.remainingMillis(null, FALLBACK_MILLIS)).isEqualTo(FALLBACK_MILLIS);
+    }
+
+    @Test
+    public void testOverrunInvocationHasNoTimeLeft() {
+        final AmazonWebServicesClientProxy proxy = new AmazonWebServicesClientProxy(new LoggerProxy(),
+                new Credentials("accessKeyId", "secretAccessKey", "sessionToken"), () -> -500L);
+
+        assertThat(InvocationTimeBudget.remainingMillis(proxy, FALLBACK_MILLIS)).isEqualTo(0L);
+    }
+}
@@ -3,28 +3,49 @@ package software.amazon.opsworkscm.server;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.awscore.AwsRequest;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.opsworkscm.model.DescribeServersRequest;
 import software.amazon.awssdk.services.opsworkscm.model.DescribeServersResponse;
+import software.amazon.awssdk.services.opsworkscm.model.ListTagsForResourceRequest;
 import software.amazon.awssdk.services.opsworkscm.model.ListTagsForResourceResponse;
 import software.amazon.awssdk.services.opsworkscm.model.Server;
 import software.amazon.awssdk.services.opsworkscm.model.Tag;
+import software.amazon.awssdk.services.resourcegroupstaggingapi.model.GetResourcesRequest;
+import software.amazon.awssdk.services.resourcegroupstaggingapi.model.GetResourcesResponse;
+import software.amazon.awssdk.services.resourcegroupstaggingapi.model.ResourceTagMapping;
+import software.amazon.awssdk.services.resourcegroupstaggingapi.model.TaggingException;
+import software.amazon.cloudformation.exceptions.CfnServiceInternalErrorException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
+import java.net.SocketTimeoutException;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 public class ListHandlerTest {
 
     private static final String SERVER_NAME = "server-name";
+    private static final String SERVER_ARN = "arn:aws:opsworks-cm:us-east-1:123456789012:server/server-name/id";
     private static final String ENDPOINT = "endpoint.com";
+    private static final String PAGE_TOKEN = "page-token";
+    private static final String NEXT_PAGE_TOKEN = "next-page-token";
     @Mock
     private AmazonWebServicesClientProxy proxy;
 
@@ -39,10 +60,16 @@ public class ListHandlerTest {
 
     @Test
     public void handleRequest_SimpleSuccess() {
-        doReturn(DescribeServersResponse.builder().servers(Server.builder().serverName(SERVER_NAME).endpoint(ENDPOINT).build()).build())
-                .doReturn(ListTagsForResourceResponse.builder().tags(Tag.builder().key("asd").value("asd").build()).build())
-                .when(proxy).injectCredentialsAndInvokeV2(any(), any());
+        doReturn(DescribeServersResponse.builder().servers(server()).build())
+                .when(proxy).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        doReturn(GetResourcesResponse.builder().resourceTagMappingList(ResourceTagMapping.builder()
+                .resourceARN(SERVER_ARN)
+                .tags(software.amazon.awssdk.services.resourcegroupstaggingapi.model.Tag.builder().key("asd").value("asd").build())
+                .build()).build())
+                .when(proxy).injectCredentialsAndInvokeV2(any(GetResourcesRequest.class), any());
         final ListHandler handler = new ListHandler();
+        handler.rateLimiter = ApiRateLimiter.UNLIMITED;
+        handler.circuitBreaker = CircuitBreaker.DISABLED;
 
         final ResourceModel model = ResourceModel.builder().build();
 
@@ -60,13 +87,78 @@ public class ListHandlerTest {
         assertThat(response.getResourceModel()).isNull();
         assertThat(response.getResourceModels()).isNotNull();
         assertThat(response.getResourceModels().size()).isEqualTo(1);
+        assertThat(response.getResourceModels().get(0).getTags())
+                .containsExactly(software.amazon.opsworkscm.server.Tag.builder().key("asd").value("asd").build());
+        assertThat(response.getNextToken()).isNull();
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
+        verify(proxy, never()).injectCredentialsAndInvokeV2(any(ListTagsForResourceRequest.class), any());
+    }
+
+    @Test
+    public void handleRequest_BulkTagLookupFailureFallsBackToPerServerTags() {
+        doReturn(DescribeServersResponse.builder().servers(server()).build())
+                .when(proxy).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        doThrow(TaggingException.builder().message("AccessDenied").build())
+                .when(proxy).injectCredentialsAndInvokeV2(any(GetResourcesRequest.class), any());
+        doReturn(ListTagsForResourceResponse.builder().tags(Tag.builder().key("asd").value("asd").build()).build())
+                .when(proxy).injectCredentialsAndInvokeV2(any(ListTagsForResourceRequest.class), any());
+        final ListHandler handler = new ListHandler();
+        handler.rateLimiter = ApiRateLimiter.UNLIMITED;
+        handler.circuitBreaker = CircuitBreaker.DISABLED;
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(ResourceModel.builder().build())
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+                handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).hasSize(1);
+        assertThat(response.getResourceModels().get(0).getTags())
+                .containsExactly(software.amazon.opsworkscm.server.Tag.builder().key("asd").value("asd").build());
+        verify(proxy, times(1)).injectCredentialsAndInvokeV2(any(ListTagsForResourceRequest.class), any());
+    }
+
+    @Test
+    public void handleRequest_Pagination() {
+        doReturn(DescribeServersResponse.builder()
+                .servers(server())
+                .nextToken(NEXT_PAGE_TOKEN)
+                .build())
+                .when(proxy).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        doReturn(GetResourcesResponse.builder().build())
+                .when(proxy).injectCredentialsAndInvokeV2(any(GetResourcesRequest.class), any());
+        final ListHandler handler = new ListHandler();
+        handler.rateLimiter = ApiRateLimiter.UNLIMITED;
+        handler.circuitBreaker = CircuitBreaker.DISABLED;
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(ResourceModel.builder().build())
+                .nextToken(PAGE_TOKEN)
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response =
+                handler.handleRequest(proxy, request, null, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getNextToken()).isEqualTo(NEXT_PAGE_TOKEN);
+
+        verify(proxy, times(1)).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        verify(proxy, times(1)).injectCredentialsAndInvokeV2(any(GetResourcesRequest.class), any());
+        ArgumentCaptor<AwsRequest> requestCaptor = ArgumentCaptor.forClass(AwsRequest.class);
+        verify(proxy, times(2)).injectCredentialsAndInvokeV2(requestCaptor.capture(), any());
+        DescribeServersRequest describeRequest = (DescribeServersRequest) requestCaptor.getAllValues().get(0);
+        assertThat(describeRequest.nextToken()).isEqualTo(PAGE_TOKEN);
+        assertThat(describeRequest.maxResults()).isEqualTo(ListHandler.MAX_RESULTS_PER_PAGE);
     }
 
     @Test
     public void handleRequest_NullDescribe() {
         final ListHandler handler = new ListHandler();
+        handler.rateLimiter = ApiRateLimiter.UNLIMITED;
+        handler.circuitBreaker = CircuitBreaker.DISABLED;
 
         final ResourceModel model = ResourceModel.builder().build();
 
@@ -84,4 +176,50 @@ public class ListHandlerTest {
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
     }
+
+    @Test
+    public void handleRequest_OpenCircuit() {
+        final ListHandler handler = new ListHandler();
+        handler.rateLimiter = ApiRateLimiter.UNLIMITED;
+        handler.circuitBreaker = new CircuitBreaker(() -> 0L);
+        for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD; i++) {
+            handler.circuitBreaker.onFailure();
+        }
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(ResourceModel.builder().build())
+                .build();
+
+        assertThatThrownBy(() -> handler.handleRequest(proxy, request, null, logger))
+                .isInstanceOf(CfnServiceInternalErrorException.class);
+        verify(proxy, never()).injectCredentialsAndInvokeV2(any(), any());
+    }
+
+    @Test
+    public void handleRequest_CircuitOpensDuringTagLookup() {
+        final CircuitBreaker breaker = new CircuitBreaker(() -> 0L);
+        doReturn(DescribeServersResponse.builder().servers(server()).build())
+                .when(proxy).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        doAnswer(invocation -> {
+            for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD; i++) {
+                breaker.onFailure();
+            }
+            throw SdkClientException.create("Unable to execute HTTP request", new SocketTimeoutException("Read timed out"));
+        }).when(proxy).injectCredentialsAndInvokeV2(any(GetResourcesRequest.class), any());
+        final ListHandler handler = new ListHandler();
+        handler.rateLimiter = ApiRateLimiter.UNLIMITED;
+        handler.circuitBreaker = breaker;
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(ResourceModel.builder().build())
+                .build();
+
+        assertThatThrownBy(() -> handler.handleRequest(proxy, request, null, logger))
+                .isInstanceOf(CfnServiceInternalErrorException.class);
+        verify(proxy, never()).injectCredentialsAndInvokeV2(any(ListTagsForResourceRequest.class), any());
+    }
+
+    private static Server server() {
+        return Server.builder().serverName(SERVER_NAME).serverArn(SERVER_ARN).endpoint(ENDPOINT).build();
+    }
 }
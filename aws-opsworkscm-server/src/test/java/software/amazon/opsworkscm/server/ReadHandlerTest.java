@@ -16,6 +16,8 @@ import software.amazon.awssdk.services.opsworkscm.model.OpsWorksCmException;
 import software.amazon.awssdk.services.opsworkscm.model.Server;
 import software.amazon.cloudformation.exceptions.CfnGeneralServiceException;
 import software.amazon.cloudformation.exceptions.CfnNotFoundException;
+import software.amazon.cloudformation.exceptions.CfnServiceInternalErrorException;
+import software.amazon.cloudformation.exceptions.CfnThrottlingException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.OperationStatus;
@@ -27,6 +29,7 @@ import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.lenient;
@@ -71,6 +74,8 @@ public class ReadHandlerTest extends TestBase {
         proxy = mock(AmazonWebServicesClientProxy.class);
         logger = mock(Logger.class);
         handler = new ReadHandler();
+        handler.rateLimiter = ApiRateLimiter.UNLIMITED;
+        handler.circuitBreaker = CircuitBreaker.DISABLED;
 
         callbackContext = CallbackContext.builder()
                 .stabilizationRetryTimes(0)
@@ -192,6 +197,22 @@ public class ReadHandlerTest extends TestBase {
         }
     }
 
+    @Test
+    public void testThrottlingException() {
+        doThrow(throttlingException()).when(proxy).injectCredentialsAndInvokeV2(any(), any());
+
+        assertThatThrownBy(() -> handler.handleRequest(proxy, createRequest(SERVER_NAME), callbackContext, logger))
+                .isInstanceOf(CfnThrottlingException.class);
+    }
+
+    @Test
+    public void testServiceUnavailableException() {
+        doThrow(serviceUnavailableException()).when(proxy).injectCredentialsAndInvokeV2(any(), any());
+
+        assertThatThrownBy(() -> handler.handleRequest(proxy, createRequest(SERVER_NAME), callbackContext, logger))
+                .isInstanceOf(CfnServiceInternalErrorException.class);
+    }
+
     private String assertDescribeSuccess(ResourceHandlerRequest<ResourceModel> request) {
         final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, callbackContext, logger);
 
@@ -0,0 +1,100 @@
+package software.amazon.opsworkscm.server;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.retry.RetryPolicyContext;
+import software.amazon.awssdk.services.opsworkscm.model.CreateServerRequest;
+import software.amazon.awssdk.services.opsworkscm.model.DescribeServersRequest;
+import software.amazon.awssdk.services.opsworkscm.model.OpsWorksCmException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SdkRetryPolicyTest {
+
+    private final TickingClock clock = new TickingClock(0L);
+    private final RetryTelemetry telemetry = new RetryTelemetry(clock, 60_000L);
+    private final SdkRetryPolicy.OperationRetryCondition condition = new SdkRetryPolicy.OperationRetryCondition(() -> telemetry);
+
+    @Test
+    public void testReadsAreRetriedOnServiceErrors() {
+        assertThat(condition.shouldRetry(context(DescribeServersRequest.builder().build(), serviceError(), 0))).isTrue();
+        assertThat(condition.shouldRetry(context(DescribeServersRequest.builder().build(), serviceError(), SdkRetryPolicy.MAX_RETRIES))).isFalse();
+    }
+
+    @Test
+    public void testMutationsAreRetriedOnlyOnThrottling() {
+        assertThat(condition.shouldRetry(context(CreateServerRequest.builder().build(), serviceError(), 0))).isFalse();
+        assertThat(condition.shouldRetry(context(CreateServerRequest.builder().build(), throttling(), 0))).isTrue();
+        assertThat(condition.shouldRetry(context(CreateServerRequest.builder().build(), throttling(), SdkRetryPolicy.MUTATION_MAX_RETRIES))).isFalse();
+    }
+
+    @Test
+    public void testNoRetryOnceTheInvocationIsOutOfTime() {
+        clock.advance(60_000L - SdkRetryPolicy.INVOCATION_TIME_RESERVE_MILLIS);
+
+        assertThat(condition.shouldRetry(context(DescribeServersRequest.builder().build(), throttling(), 0))).isFalse();
+    }
+
+    @Test
+    public void testBackoffIsCappedByTheRemainingTime() {
+        SdkRetryPolicy.DeadlineAwareFullJitterBackoff backoff = new SdkRetryPolicy.DeadlineAwareFullJitterBackoff(
+                Duration.ofMillis(100), () -> telemetry, ceiling -> ceiling);
+
+        assertThat(backoff.computeDelayBeforeNextRetry(context(DescribeServersRequest.builder().build(), throttling(), 0)))
+                .isEqualTo(Duration.ofMillis(100));
+        assertThat(backoff.computeDelayBeforeNextRetry(context(DescribeServersRequest.builder().build(), throttling(), 3)))
+                .isEqualTo(Duration.ofMillis(800));
+        assertThat(backoff.computeDelayBeforeNextRetry(context(DescribeServersRequest.builder().build(), throttling(), 10)))
+                .isEqualTo(SdkRetryPolicy.MAX_BACKOFF);
+
+        clock.advance(50_000L);
+        assertThat(backoff.computeDelayBeforeNextRetry(context(DescribeServersRequest.builder().build(), throttling(), 10)))
+                .isEqualTo(Duration.ofMillis(10_000L - SdkRetryPolicy.INVOCATION_TIME_RESERVE_MILLIS));
+        assertThat(telemetry.getBackoffMillis()).isEqualTo(100 + 800 + 10_000 + 5_000);
+    }
+
+    @Test
+    public void testFullJitterStaysWithinTheCeiling() {
+        SdkRetryPolicy.DeadlineAwareFullJitterBackoff backoff = new SdkRetryPolicy.DeadlineAwareFullJitterBackoff(
+                Duration.ofMillis(100), () -> telemetry, ceiling -> ceiling / 2);
+
+        assertThat(backoff.computeDelayBeforeNextRetry(context(DescribeServersRequest.builder().build(), serviceError(), 2)))
+                .isEqualTo(Duration.ofMillis(200));
+    }
+
+    @Test
+    public void testTelemetryCountsAttemptsAndThrottles() {
+        RetryPolicyContext throttled = context(DescribeServersRequest.builder().build(), throttling(), 0);
+
+        condition.shouldRetry(throttled);
+        condition.requestWillNotBeRetried(context(DescribeServersRequest.builder().build(), serviceError(), 1));
+        condition.requestSucceeded(context(DescribeServersRequest.builder().build(), null, 0));
+
+        assertThat(telemetry.getAttempts()).isEqualTo(3);
+        assertThat(telemetry.getThrottles()).isEqualTo(1);
+        assertThat(telemetry.getRetries()).isEqualTo(1);
+    }
+
+    private static RetryPolicyContext context(final SdkRequest request, final SdkException exception, final int retriesAttempted) {
+        return RetryPolicyContext.builder()
+                .originalRequest(request)
+                .exception(exception)
+                .retriesAttempted(retriesAttempted)
+                .httpStatusCode(exception instanceof OpsWorksCmException ? ((OpsWorksCmException) exception).statusCode() : 200)
+                .build();
+    }
+
+    private static SdkException serviceError() {
+        return OpsWorksCmException.builder().statusCode(500)
+                .awsErrorDetails(AwsErrorDetails.builder().errorCode("InternalFailure").build()).build();
+    }
+
+    private static SdkException throttling() {
+        return OpsWorksCmException.builder().statusCode(400)
+                .awsErrorDetails(AwsErrorDetails.builder().errorCode("ThrottlingException").build()).build();
+    }
+}
@@ -0,0 +1,100 @@
+package software.amazon.opsworkscm.server;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.opsworkscm.model.DescribeEventsResponse;
+import software.amazon.awssdk.services.opsworkscm.model.ServerEvent;
+import software.amazon.awssdk.services.opsworkscm.model.ValidationException;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.opsworkscm.server.utils.LoggerWrapper;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ServerEventTrackerTest {
+
+    private static final String SERVER_NAME = "ServerName";
+    private static final long LAST_SEEN = 1_000_000L;
+
+    private ClientWrapper client;
+    private ServerEventTracker tracker;
+    private CallbackContext callbackContext;
+
+    @BeforeEach
+    public void setup() {
+        client = mock(ClientWrapper.class);
+        tracker = new ServerEventTracker(client, new LoggerWrapper(mock(Logger.class)));
+        callbackContext = CallbackContext.builder().lastEventTimestamp(LAST_SEEN).build();
+    }
+
+    @Test
+    public void testOnlyNewEventsAreReturned() {
+        doReturn(page("older-page", event(LAST_SEEN + 2000, "Setup complete"), event(LAST_SEEN + 1000, "Instance launched"), event(LAST_SEEN, "seen")))
+                .when(client).describeEvents(eq(SERVER_NAME), isNull());
+
+        List<ServerEvent> events = tracker.fetchNewEvents(callbackContext, SERVER_NAME);
+
+        assertThat(events).extracting(ServerEvent::message).containsExactly("Setup complete", "Instance launched");
+        assertThat(callbackContext.getLastEventTimestamp()).isEqualTo(LAST_SEEN + 2000);
+        assertThat(callbackContext.getEventsNextToken()).isNull();
+        verify(client, times(1)).describeEvents(any(), any());
+    }
+
+    @Test
+    public void testInterruptedScanResumesFromCursor() {
+        doReturn(page("token-1", event(LAST_SEEN + 600, "e6"))).when(client).describeEvents(eq(SERVER_NAME), isNull());
+        doReturn(page("token-2", event(LAST_SEEN + 500, "e5"))).when(client).describeEvents(SERVER_NAME, "token-1");
+        doReturn(page("token-3", event(LAST_SEEN + 400, "e4"))).when(client).describeEvents(SERVER_NAME, "token-2");
+        doReturn(page("token-4", event(LAST_SEEN + 300, "e3"), event(LAST_SEEN - 100, "seen")))
+                .when(client).describeEvents(SERVER_NAME, "token-3");
+
+        assertThat(tracker.fetchNewEvents(callbackContext, SERVER_NAME)).hasSize(ServerEventTracker.MAX_PAGES_PER_POLL);
+        assertThat(callbackContext.getEventsNextToken()).isEqualTo("token-3");
+        assertThat(callbackContext.getLastEventTimestamp()).isEqualTo(LAST_SEEN);
+        assertThat(callbackContext.getPendingEventTimestamp()).isEqualTo(LAST_SEEN + 600);
+
+        assertThat(tracker.fetchNewEvents(callbackContext, SERVER_NAME)).extracting(ServerEvent::message).containsExactly("e3");
+        assertThat(callbackContext.getEventsNextToken()).isNull();
+        assertThat(callbackContext.getLastEventTimestamp()).isEqualTo(LAST_SEEN + 600);
+        assertThat(callbackContext.getPendingEventTimestamp()).isEqualTo(0L);
+
+        doReturn(page(null, event(LAST_SEEN + 600, "e6"))).when(client).describeEvents(eq(SERVER_NAME), isNull());
+        assertThat(tracker.fetchNewEvents(callbackContext, SERVER_NAME)).isEmpty();
+    }
+
+    @Test
+    public void testLookupFailureIsTreatedAsNoEvents() {
+        doThrow(ValidationException.builder().message("not authorized").build()).when(client).describeEvents(any(), any());
+        callbackContext.setEventsNextToken("token");
+
+        assertThat(tracker.fetchNewEvents(callbackContext, SERVER_NAME)).isEmpty();
+        assertThat(callbackContext.getEventsNextToken()).isEqualTo("token");
+        assertThat(callbackContext.getLastEventTimestamp()).isEqualTo(LAST_SEEN);
+    }
+
+    @Test
+    public void testFailureEvents() {
+        assertThat(ServerEventTracker.isFailureEvent(event(0, "Setup step failed: reconfigure"))).isTrue();
+        assertThat(ServerEventTracker.isFailureEvent(event(0, "Failure while launching instance"))).isTrue();
+        assertThat(ServerEventTracker.isFailureEvent(event(0, "Failover configured"))).isFalse();
+        assertThat(ServerEventTracker.isFailureEvent(ServerEvent.builder().build())).isFalse();
+    }
+
+    private static DescribeEventsResponse page(final String nextToken, final ServerEvent... events) {
+        return DescribeEventsResponse.builder().serverEvents(events).nextToken(nextToken).build();
+    }
+
+    private static ServerEvent event(final long createdAt, final String message) {
+        return ServerEvent.builder().createdAt(Instant.ofEpochMilli(createdAt)).message(message).build();
+    }
+}
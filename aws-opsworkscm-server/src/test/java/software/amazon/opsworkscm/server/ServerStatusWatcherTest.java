@@ -0,0 +1,188 @@
+package software.amazon.opsworkscm.server;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.opsworkscm.model.DescribeServersResponse;
+import software.amazon.awssdk.services.opsworkscm.model.Server;
+import software.amazon.awssdk.services.opsworkscm.model.ServerStatus;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ServerStatusWatcherTest {
+
+    private static final int HERD = 50;
+    private static final int ROUNDS = 5;
+    private static final long POLL_SPACING_MILLIS = 500L;
+
+    private final List<String> serverNames = IntStream.range(0, HERD).mapToObj(i -> "server-" + i).collect(Collectors.toList());
+
+    private ClientWrapper client;
+    private ServerStatusWatcher watcher;
+
+    @BeforeEach
+    public void setup() {
+        client = mock(ClientWrapper.class);
+        watcher = new ServerStatusWatcher();
+        doAnswer(invocation -> single(invocation.getArgument(0))).when(client).refreshServer(anyString());
+    }
+
+    @Test
+    public void testSingleServerDescribesItself() {
+        for (int i = 0; i < ROUNDS; i++) {
+            watcher.describeServer(client, "server-0", 0L, i * 60_000L);
+        }
+
+        verify(client, times(ROUNDS)).refreshServer("server-0");
+        verify(client, never()).describeAllServers(any(), any());
+    }
+
+    @Test
+    public void testHerdIsServedFromSharedSnapshot() {
+        final AtomicInteger apiCalls = new AtomicInteger();
+        doAnswer(invocation -> {
+            apiCalls.incrementAndGet();
+            return "page-2".equals(invocation.getArgument(0))
+                    ? DescribeServersResponse.builder().servers(servers(HERD / 2, HERD)).build()
+                    : DescribeServersResponse.builder().servers(servers(0, HERD / 2)).nextToken("page-2").build();
+        }).when(client).describeAllServers(any(), any());
+        doAnswer(invocation -> {
+            apiCalls.incrementAndGet();
+            return single(invocation.getArgument(0));
+        }).when(client).refreshServer(anyString());
+
+        long now = 0L;
+        int polls = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            for (String serverName : serverNames) {
+                DescribeServersResponse response = watcher.describeServer(client, serverName, 0L, now);
+                assertThat(response.servers().get(0).serverName()).isEqualTo(serverName);
+                now += POLL_SPACING_MILLIS;
+                polls++;
+            }
+        }
+
+        assertThat(apiCalls.get()).as("%d API calls for %d polls", apiCalls.get(), polls).isLessThan(polls / 4);
+    }
+
+    @Test
+    public void testServerMissingFromSnapshotIsDescribedDirectly() {
+        doReturn(DescribeServersResponse.builder().servers(servers(0, 2)).build()).when(client).describeAllServers(any(), any());
+
+        watcher.describeServer(client, "server-0", 0L, 0L);
+        watcher.describeServer(client, "server-1", 0L, 1L);
+        watcher.describeServer(client, "server-new", 0L, 2L);
+
+        verify(client, times(1)).describeAllServers(any(), any());
+        verify(client, times(1)).refreshServer("server-new");
+    }
+
+    @Test
+    public void testSnapshotOlderThanStabilizationIsNotUsed() {
+        doReturn(DescribeServersResponse.builder().servers(servers(0, 3)).build()).when(client).describeAllServers(any(), any());
+        watcher.describeServer(client, "server-0", 0L, 0L);
+        watcher.describeServer(client, "server-1", 0L, 1L);
+        watcher.describeServer(client, "server-2", 0L, 2L);
+
+        watcher.describeServer(client, "server-2", 3L, 3L);
+
+        verify(client, times(1)).refreshServer("server-2");
+    }
+
+    @Test
+    public void testSnapshotFailureFallsBackToDirectDescribe() {
+        doAnswer(invocation -> {
+            throw new IllegalStateException("Rate exceeded");
+        }).when(client).describeAllServers(any(), any());
+
+        watcher.describeServer(client, "server-0", 0L, 0L);
+        watcher.describeServer(client, "server-1", 0L, 1L);
+        DescribeServersResponse response = watcher.describeServer(client, "server-2", 0L, 2L);
+
+        assertThat(response.servers().get(0).serverName()).isEqualTo("server-2");
+        verify(client, times(1)).refreshServer("server-2");
+    }
+
+    @Test
+    public void testFailedRefreshDoesNotServeTheOldSnapshot() {
+        doReturn(DescribeServersResponse.builder().servers(servers(0, 3)).build())
+                .doThrow(new IllegalStateException("Rate exceeded"))
+                .when(client).describeAllServers(any(), any());
+        watcher.describeServer(client, "server-0", 0L, 0L);
+        watcher.describeServer(client, "server-1", 0L, 1L);
+        watcher.describeServer(client, "server-2", 0L, 2L);
+
+        final long later = 2L + ServerStatusWatcher.MAX_SNAPSHOT_AGE_MILLIS + 1;
+        DescribeServersResponse response = watcher.describeServer(client, "server-1", 0L, later);
+
+        assertThat(response.servers().get(0).serverName()).isEqualTo("server-1");
+        verify(client, times(2)).describeAllServers(any(), any());
+        verify(client, times(1)).refreshServer("server-1");
+    }
+
+    @Test
+    public void testStacksDoNotShareSnapshots() {
+        ServerStatusWatcher first = ServerStatusWatcher.forStack("111111111111", "us-east-1", "stack-a");
+
+        assertThat(ServerStatusWatcher.forStack("111111111111", "us-east-1", "stack-a")).isSameAs(first);
+        assertThat(ServerStatusWatcher.forStack("111111111111", "us-east-1", "stack-b")).isNotSameAs(first);
+        assertThat(ServerStatusWatcher.forStack("111111111111", "us-west-2", "stack-a")).isNotSameAs(first);
+    }
+
+    @Test
+    public void testConcurrentPollsShareOneSnapshotFetch() throws Exception {
+        final CountDownLatch fetching = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            fetching.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return DescribeServersResponse.builder().servers(servers(0, 3)).build();
+        }).when(client).describeAllServers(any(), any());
+        watcher.describeServer(client, "server-0", 0L, 0L);
+        watcher.describeServer(client, "server-1", 0L, 1L);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<DescribeServersResponse> fetcher = executor.submit(() -> watcher.describeServer(client, "server-2", 0L, 2L));
+            assertThat(fetching.await(10, TimeUnit.SECONDS)).isTrue();
+            Future<DescribeServersResponse> waiter = executor.submit(() -> watcher.describeServer(client, "server-0", 0L, 3L));
+            release.countDown();
+
+            assertThat(fetcher.get(10, TimeUnit.SECONDS).servers().get(0).serverName()).isEqualTo("server-2");
+            assertThat(waiter.get(10, TimeUnit.SECONDS).servers().get(0).serverName()).isEqualTo("server-0");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(client, times(1)).describeAllServers(any(), any());
+    }
+
+    private static DescribeServersResponse single(final String serverName) {
+        return DescribeServersResponse.builder()
+                .servers(Server.builder().serverName(serverName).status(ServerStatus.CREATING).build())
+                .build();
+    }
+
+    private List<Server> servers(final int from, final int to) {
+        return serverNames.subList(from, to).stream()
+                .map(name -> Server.builder().serverName(name).status(ServerStatus.CREATING).build())
+                .collect(Collectors.toList());
+    }
+}
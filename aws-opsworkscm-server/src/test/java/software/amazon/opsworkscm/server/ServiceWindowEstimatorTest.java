@@ -0,0 +1,71 @@
+package software.amazon.opsworkscm.server;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.opsworkscm.model.ServerStatus;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ServiceWindowEstimatorTest {
+
+    // Wednesday
+    private static final long NOW = Instant.parse("2026-10-14T08:20:00Z").toEpochMilli();
+    private static final long ENTERED_AT = NOW - 5 * 60_000L;
+
+    @Test
+    public void testMaintenanceInsideWeeklyWindowEndsWithWindow() {
+        long end = ServiceWindowEstimator.estimateEndMillis(ServerStatus.UNDER_MAINTENANCE, "Wed:08:00", null, ENTERED_AT, NOW);
+
+        assertThat(end).isEqualTo(Instant.parse("2026-10-14T09:00:00Z").toEpochMilli());
+    }
+
+    @Test
+    public void testBackupInsideDailyWindowEndsWithWindow() {
+        long end = ServiceWindowEstimator.estimateEndMillis(ServerStatus.BACKING_UP, null, "07:30", ENTERED_AT, NOW);
+
+        assertThat(end).isEqualTo(Instant.parse("2026-10-14T08:30:00Z").toEpochMilli());
+    }
+
+    @Test
+    public void testDailyWindowStartedBeforeMidnight() {
+        long now = Instant.parse("2026-10-14T00:10:00Z").toEpochMilli();
+
+        long end = ServiceWindowEstimator.estimateEndMillis(ServerStatus.BACKING_UP, null, "23:30", now, now);
+
+        assertThat(end).isEqualTo(Instant.parse("2026-10-14T00:30:00Z").toEpochMilli());
+    }
+
+    @Test
+    public void testRunThatOutlastsItsWindowIsOverdue() {
+        long later = Instant.parse("2026-10-14T09:10:00Z").toEpochMilli();
+
+        long end = ServiceWindowEstimator.estimateEndMillis(ServerStatus.UNDER_MAINTENANCE, "Wed:08:00", null, ENTERED_AT, later);
+
+        assertThat(end).isLessThan(later);
+    }
+
+    @Test
+    public void testOutsideWindowUsesTypicalDurationFromEntry() {
+        assertThat(ServiceWindowEstimator.estimateEndMillis(ServerStatus.UNDER_MAINTENANCE, "Mon:08:00", null, ENTERED_AT, NOW))
+                .isEqualTo(ENTERED_AT + ServiceWindowEstimator.TYPICAL_MAINTENANCE.toMillis());
+        assertThat(ServiceWindowEstimator.estimateEndMillis(ServerStatus.BACKING_UP, null, "02:00", ENTERED_AT, NOW))
+                .isEqualTo(ENTERED_AT + ServiceWindowEstimator.TYPICAL_BACKUP.toMillis());
+    }
+
+    @Test
+    public void testMissingOrMalformedWindowUsesTypicalDuration() {
+        assertThat(ServiceWindowEstimator.estimateEndMillis(ServerStatus.UNDER_MAINTENANCE, null, null, ENTERED_AT, NOW))
+                .isEqualTo(ENTERED_AT + ServiceWindowEstimator.TYPICAL_MAINTENANCE.toMillis());
+        assertThat(ServiceWindowEstimator.estimateEndMillis(ServerStatus.UNDER_MAINTENANCE, "Xyz:08:00", null, ENTERED_AT, NOW))
+                .isEqualTo(ENTERED_AT + ServiceWindowEstimator.TYPICAL_MAINTENANCE.toMillis());
+        assertThat(ServiceWindowEstimator.estimateEndMillis(ServerStatus.BACKING_UP, null, "25:00", 0L, NOW))
+                .isEqualTo(NOW + ServiceWindowEstimator.TYPICAL_BACKUP.toMillis());
+    }
+
+    @Test
+    public void testOtherStatusesHaveNoEstimate() {
+        assertThat(ServiceWindowEstimator.estimateEndMillis(ServerStatus.CREATING, "Wed:08:00", "08:00", ENTERED_AT, NOW)).isZero();
+        assertThat(ServiceWindowEstimator.estimateEndMillis(null, "Wed:08:00", "08:00", ENTERED_AT, NOW)).isZero();
+    }
+}
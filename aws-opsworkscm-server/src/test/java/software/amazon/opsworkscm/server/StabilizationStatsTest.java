@@ -0,0 +1,96 @@
+package software.amazon.opsworkscm.server;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StabilizationStatsTest {
+
+    private static final String KEY = "create|ChefAutomate|Single|m5.large";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testNoEstimateWithoutEnoughSamples() {
+        StabilizationStats stats = new StabilizationStats(tempDir.resolve("stats.properties"));
+        for (int i = 1; i < StabilizationStats.MIN_SAMPLES; i++) {
+            stats.record(KEY, 1000);
+        }
+
+        assertThat(stats.estimateSeconds(KEY)).isEqualTo(0);
+    }
+
+    @Test
+    public void testEstimateIsLowPercentile() {
+        StabilizationStats stats = new StabilizationStats(tempDir.resolve("stats.properties"));
+        for (int duration = 1000; duration < 1200; duration += 10) {
+            stats.record(KEY, duration);
+        }
+
+        // 20 samples, the 10th percentile is the second smallest
+        assertThat(stats.estimateSeconds(KEY)).isEqualTo(1010);
+        assertThat(stats.estimateSeconds("create|Puppet|Monolithic|m5.large")).isEqualTo(0);
+    }
+
+    @Test
+    public void testSamplesSurviveNewInstances() {
+        Path file = tempDir.resolve("stats.properties");
+        StabilizationStats stats = new StabilizationStats(file);
+        stats.record(KEY, 900);
+        stats.record(KEY, 950);
+        stats.record(KEY, 1000);
+
+        assertThat(new StabilizationStats(file).estimateSeconds(KEY)).isEqualTo(900);
+    }
+
+    @Test
+    public void testOnlyRecentSamplesAreKept() {
+        StabilizationStats stats = new StabilizationStats(tempDir.resolve("stats.properties"));
+        for (int i = 0; i < StabilizationStats.MAX_SAMPLES_PER_KEY; i++) {
+            stats.record(KEY, 100);
+        }
+        for (int i = 0; i < StabilizationStats.MAX_SAMPLES_PER_KEY; i++) {
+            stats.record(KEY, 2000);
+        }
+
+        assertThat(stats.estimateSeconds(KEY)).isEqualTo(2000);
+    }
+
+    @Test
+    public void testImplausibleDurationsAreIgnored() {
+        StabilizationStats stats = new StabilizationStats(tempDir.resolve("stats.properties"));
+        for (int i = 0; i < StabilizationStats.MIN_SAMPLES; i++) {
+            stats.record(KEY, 0);
+            stats.record(KEY, Long.MAX_VALUE);
+        }
+
+        assertThat(stats.estimateSeconds(KEY)).isEqualTo(0);
+    }
+
+    @Test
+    public void testCorruptFileStartsEmpty() throws IOException {
+        Path file = tempDir.resolve("stats.properties");
+        Files.write(file, (KEY + "=12,abc,14\n").getBytes(StandardCharsets.UTF_8));
+
+        StabilizationStats stats = new StabilizationStats(file);
+
+        assertThat(stats.estimateSeconds(KEY)).isEqualTo(0);
+        stats.record(KEY, 10);
+        assertThat(new String(Files.readAllBytes(file), StandardCharsets.UTF_8)).contains("=10");
+    }
+
+    @Test
+    public void testKeyUsesEngineModelAndInstanceType() {
+        ResourceModel model = ResourceModel.builder().engine("Puppet").engineModel("Monolithic").instanceType("m5.xlarge").build();
+
+        assertThat(StabilizationStats.key("create", model)).isEqualTo("create|Puppet|Monolithic|m5.xlarge");
+        assertThat(StabilizationStats.key("delete", ResourceModel.builder().build())).isEqualTo("delete|unknown|unknown|unknown");
+    }
+}
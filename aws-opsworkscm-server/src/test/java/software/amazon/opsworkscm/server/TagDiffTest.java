@@ -0,0 +1,96 @@
+package software.amazon.opsworkscm.server;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TagDiffTest {
+
+    private static final int LARGE_TAG_COUNT = 10000;
+
+    @Test
+    public void testClassifiesTags() {
+        List<Tag> previousTags = ImmutableList.of(
+                tag("keep", "same"),
+                tag("change", "old"),
+                tag("remove", "gone"));
+        List<Tag> desiredTags = ImmutableList.of(
+                tag("keep", "same"),
+                tag("change", "new"),
+                tag("add", "fresh"));
+
+        TagDiff diff = TagDiff.between(previousTags, desiredTags);
+
+        assertThat(diff.hasChanges()).isTrue();
+        assertThat(diff.getAdded()).containsOnlyKeys("add");
+        assertThat(diff.getChanged()).containsEntry("change", "new").hasSize(1);
+        assertThat(diff.getUnchanged()).containsOnlyKeys("keep");
+        assertThat(diff.getRemoved()).containsExactly("remove");
+        assertThat(diff.getTagsToApply()).containsOnlyKeys("add", "change");
+    }
+
+    @Test
+    public void testNoChanges() {
+        List<Tag> tags = ImmutableList.of(tag("k1", "v1"), tag("k2", "v2"));
+        TagDiff diff = TagDiff.between(tags, ImmutableList.of(tag("k2", "v2"), tag("k1", "v1")));
+
+        assertThat(diff.hasChanges()).isFalse();
+        assertThat(diff.getTagsToApply()).isEmpty();
+        assertThat(diff.getRemoved()).isEmpty();
+    }
+
+    @Test
+    public void testNullTagLists() {
+        assertThat(TagDiff.between(null, null).hasChanges()).isFalse();
+        assertThat(TagDiff.between(null, ImmutableList.of(tag("k", "v"))).getAdded()).containsOnlyKeys("k");
+        assertThat(TagDiff.between(ImmutableList.of(tag("k", "v")), null).getRemoved()).containsExactly("k");
+    }
+
+    @Test
+    public void testReservedKeysAreNeverTouched() {
+        List<Tag> previousTags = ImmutableList.of(tag("aws:cloudformation:stack-name", "stack"), tag("AWS:other", "x"));
+        List<Tag> desiredTags = ImmutableList.of(tag("aws:cloudformation:logical-id", "id"));
+
+        TagDiff diff = TagDiff.between(previousTags, desiredTags);
+
+        assertThat(diff.hasChanges()).isFalse();
+        assertThat(diff.getRemoved()).isEmpty();
+        assertThat(diff.getTagsToApply()).isEmpty();
+    }
+
+    @Test
+    public void testLargeTagSets() {
+        List<Tag> previousTags = new ArrayList<>();
+        List<Tag> desiredTags = new ArrayList<>();
+        for (int i = 0; i < LARGE_TAG_COUNT; i++) {
+            previousTags.add(tag("key" + i, "value" + i));
+            if (i % 4 == 0) {
+                continue;
+            }
+            desiredTags.add(tag("key" + i, i % 4 == 1 ? "changed" + i : "value" + i));
+        }
+        desiredTags.add(tag("added", "value"));
+
+        TagDiff diff = TagDiff.between(previousTags, desiredTags);
+
+        assertThat(diff.getRemoved()).hasSize(LARGE_TAG_COUNT / 4);
+        assertThat(diff.getChanged()).hasSize(LARGE_TAG_COUNT / 4);
+        assertThat(diff.getUnchanged()).hasSize(LARGE_TAG_COUNT / 2);
+        assertThat(diff.getAdded()).containsOnlyKeys("added");
+    }
+
+    @Test
+    public void testEmptyDesiredRemovesEverything() {
+        TagDiff diff = TagDiff.between(ImmutableList.of(tag("a", "1"), tag("b", "2")), Collections.emptyList());
+        assertThat(diff.getRemoved()).containsExactly("a", "b");
+    }
+
+    private static Tag tag(String key, String value) {
+        return Tag.builder().key(key).value(value).build();
+    }
+}
@@ -1,5 +1,35 @@
 package software.amazon.opsworkscm.server;
 
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.services.opsworkscm.model.OpsWorksCmException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
 abstract class TestBase {
     protected static final String SERVER_NAME_PREFIX = "Server-";
+
+    protected static void assertJitteredDelay(final int actualSeconds, final int baseSeconds) {
+        if (baseSeconds < CallbackScheduler.MIN_JITTERED_DELAY_SECONDS) {
+            assertThat(actualSeconds).isEqualTo(baseSeconds);
+            return;
+        }
+        final int spread = Math.min(baseSeconds / 2, CallbackScheduler.MAX_SPREAD_SECONDS);
+        assertThat(actualSeconds).isBetween(baseSeconds - spread + 1, baseSeconds);
+    }
+
+    protected static OpsWorksCmException throttlingException() {
+        return (OpsWorksCmException) OpsWorksCmException.builder()
+                .message("Rate exceeded")
+                .statusCode(400)
+                .awsErrorDetails(AwsErrorDetails.builder().errorCode("ThrottlingException").errorMessage("Rate exceeded").build())
+                .build();
+    }
+
+    protected static OpsWorksCmException serviceUnavailableException() {
+        return (OpsWorksCmException) OpsWorksCmException.builder()
+                .message("Service unavailable")
+                .statusCode(503)
+                .awsErrorDetails(AwsErrorDetails.builder().errorCode("ServiceUnavailable").errorMessage("Service unavailable").build())
+                .build();
+    }
 }
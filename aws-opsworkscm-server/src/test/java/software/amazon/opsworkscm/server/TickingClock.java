@@ -0,0 +1,45 @@
+package software.amazon.opsworkscm.server;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Clock that moves forward by a fixed step every time it is read.
+ */
+class TickingClock extends Clock {
+
+    private final long stepMillis;
+    private long currentMillis;
+
+    TickingClock(final long stepMillis) {
+        this(0L, stepMillis);
+    }
+
+    TickingClock(final long startMillis, final long stepMillis) {
+        this.currentMillis = startMillis;
+        this.stepMillis = stepMillis;
+    }
+
+    void advance(final long millis) {
+        currentMillis += millis;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(final ZoneId zone) {
+        return this;
+    }
+
+    @Override
+    public Instant instant() {
+        final Instant now = Instant.ofEpochMilli(currentMillis);
+        currentMillis += stepMillis;
+        return now;
+    }
+}
@@ -26,6 +26,7 @@ import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
+import java.time.Clock;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -37,13 +38,15 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentCaptor.forClass;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
-public class UpdateHandlerTest {
+public class UpdateHandlerTest extends TestBase {
 
     @Mock
     private AmazonWebServicesClientProxy proxy;
@@ -74,6 +77,8 @@ public class UpdateHandlerTest {
         proxy = mock(AmazonWebServicesClientProxy.class);
         logger = mock(Logger.class);
         handler = new UpdateHandler();
+        handler.rateLimiter = ApiRateLimiter.UNLIMITED;
+        handler.circuitBreaker = CircuitBreaker.DISABLED;
 
         callbackContext = CallbackContext.builder()
                 .stabilizationRetryTimes(0)
@@ -109,6 +114,24 @@ public class UpdateHandlerTest {
         lenient().doReturn(UntagResourceResponse.builder().build()).when(proxy).injectCredentialsAndInvokeV2(any(UntagResourceRequest.class), any());
     }
 
+    @Test
+    public void throttledUpdateServerIsRetriedInSamePhase() {
+        doThrow(throttlingException()).when(proxy).injectCredentialsAndInvokeV2(any(UpdateServerRequest.class), any());
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, callbackContext, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackContext().getUpdatePhase()).isEqualTo(UpdatePhase.UPDATE_SERVER);
+        assertThat(response.getCallbackContext().getServiceRetryTimes()).isEqualTo(1);
+        assertThat(response.getCallbackDelaySeconds()).isEqualTo(BaseOpsWorksCMHandler.SERVICE_RETRY_BASE_DELAY_SECONDS);
+
+        doReturn(UpdateServerResponse.builder().build()).when(proxy).injectCredentialsAndInvokeV2(any(UpdateServerRequest.class), any());
+        final ProgressEvent<ResourceModel, CallbackContext> retried = handler.handleRequest(proxy, request, response.getCallbackContext(), logger);
+
+        assertThat(retried.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        verify(proxy, times(1)).injectCredentialsAndInvokeV2(any(TagResourceRequest.class), any());
+    }
+
     @Test
     public void simpleUpdate() {
         assertStabilizeSuccess(request);
@@ -129,8 +152,7 @@ public class UpdateHandlerTest {
     @Test
     public void tagResourceResourceNotFound() {
         String exceptionMessage = "Batan!";
-        callbackContext.setUpdateTagComplete(false);
-        callbackContext.setUpdateServerComplete(true);
+        callbackContext.setUpdatePhase(UpdatePhase.UPDATE_TAGS);
         doThrow(ResourceNotFoundException.builder().message(exceptionMessage).build()).when(proxy).injectCredentialsAndInvokeV2(any(TagResourceRequest.class), any());
         assertResourceNotFound();
     }
@@ -138,8 +160,7 @@ public class UpdateHandlerTest {
     @Test
     public void untagResourceResourceNotFound() {
         String exceptionMessage = "Batan!";
-        callbackContext.setUpdateTagComplete(false);
-        callbackContext.setUpdateServerComplete(true);
+        callbackContext.setUpdatePhase(UpdatePhase.UPDATE_TAGS);
         doThrow(ResourceNotFoundException.builder().message(exceptionMessage).build()).when(proxy).injectCredentialsAndInvokeV2(any(UntagResourceRequest.class), any());
         assertResourceNotFound();
     }
@@ -147,8 +168,7 @@ public class UpdateHandlerTest {
     @Test
     public void describeServersResourceNotFound() {
         String exceptionMessage = "Batan!";
-        callbackContext.setUpdateTagComplete(false);
-        callbackContext.setUpdateServerComplete(false);
+        callbackContext.setUpdatePhase(UpdatePhase.UPDATE_TAGS);
         doThrow(ResourceNotFoundException.builder().message(exceptionMessage).build()).when(proxy).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
         assertResourceNotFound();
     }
@@ -156,8 +176,7 @@ public class UpdateHandlerTest {
     @Test
     public void updateServerResourceNotFound() {
         String exceptionMessage = "Batan!";
-        callbackContext.setUpdateTagComplete(true);
-        callbackContext.setUpdateServerComplete(false);
+        callbackContext.setUpdatePhase(UpdatePhase.UPDATE_SERVER);
         doThrow(ResourceNotFoundException.builder().message(exceptionMessage).build()).when(proxy).injectCredentialsAndInvokeV2(any(UpdateServerRequest.class), any());
         assertResourceNotFound();
     }
@@ -165,8 +184,7 @@ public class UpdateHandlerTest {
     @Test
     public void updateServerSomeExceptionNotForwarded() {
         String exceptionMessage = "Batan!";
-        callbackContext.setUpdateTagComplete(true);
-        callbackContext.setUpdateServerComplete(false);
+        callbackContext.setUpdatePhase(UpdatePhase.UPDATE_SERVER);
         doThrow(new RuntimeException(exceptionMessage)).when(proxy).injectCredentialsAndInvokeV2(any(UpdateServerRequest.class), any());
         try {
             handler.handleRequest(proxy, request, callbackContext, logger);
@@ -337,32 +355,154 @@ public class UpdateHandlerTest {
         verifytagsApplied(newTags, oldTags);
     }
 
-    private ProgressEvent<ResourceModel, CallbackContext> assertStabilizeSuccess(ResourceHandlerRequest<ResourceModel> request) {
-        ProgressEvent<ResourceModel, CallbackContext> response;
+    @Test
+    public void updateLifecycleCallCounts() {
+        assertStabilizeSuccess(request);
 
-        response = handler.handleRequest(proxy, request, callbackContext, logger);
-        assertThat(response).isNotNull();
-        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
-        assertThat(response.getCallbackContext()).isNotNull();
-        assertThat(response.getCallbackDelaySeconds()).isEqualTo(0);
-        assertThat(response.getResourceModel()).isEqualTo(request.getDesiredResourceState());
-        assertThat(response.getResourceModels()).isNull();
-        assertThat(response.getMessage()).isNull();
-        assertThat(response.getErrorCode()).isNull();
+        verify(proxy, times(2)).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        verify(proxy, times(1)).injectCredentialsAndInvokeV2(any(UntagResourceRequest.class), any());
+        verify(proxy, times(1)).injectCredentialsAndInvokeV2(any(TagResourceRequest.class), any());
+        verify(proxy, times(1)).injectCredentialsAndInvokeV2(any(UpdateServerRequest.class), any());
+    }
 
-        response = handler.handleRequest(proxy, request, response.getCallbackContext(), logger);
-        assertThat(response).isNotNull();
+    @Test
+    public void phasesContinueInNewInvocationWhenTimeRunsOut() {
+        handler.clock = new TickingClock(45_000L);
+
+        ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, callbackContext, logger);
         assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
-        assertThat(response.getCallbackContext()).isNotNull();
-        assertThat(response.getCallbackContext().isUpdateServerComplete()).isTrue();
-        assertThat(response.getCallbackContext().isUpdateTagComplete()).isTrue();
         assertThat(response.getCallbackDelaySeconds()).isEqualTo(0);
-        assertThat(response.getResourceModel()).isEqualTo(request.getDesiredResourceState());
-        assertThat(response.getResourceModels()).isNull();
-        assertThat(response.getMessage()).isNull();
-        assertThat(response.getErrorCode()).isNull();
+        assertThat(response.getCallbackContext().getUpdatePhase()).isEqualTo(UpdatePhase.UPDATE_SERVER);
+        assertThat(response.getCallbackContext().getServerArn()).isEqualTo(SERVER_ARN);
 
+        handler.clock = Clock.systemUTC();
         response = handler.handleRequest(proxy, request, response.getCallbackContext(), logger);
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        verify(proxy, times(1)).injectCredentialsAndInvokeV2(any(TagResourceRequest.class), any());
+        verify(proxy, times(1)).injectCredentialsAndInvokeV2(any(UpdateServerRequest.class), any());
+    }
+
+    @Test
+    public void unchangedTagsSkipTagApiCalls() {
+        List<Tag> tags = ImmutableList.of(Tag.builder().key("same").value("value").build());
+        request.setDesiredResourceState(ResourceModel.builder().tags(tags).build());
+        request.setPreviousResourceState(ResourceModel.builder().tags(tags).build());
+        handler.handleRequest(proxy, request, callbackContext, logger);
+
+        verify(proxy, times(0)).injectCredentialsAndInvokeV2(any(TagResourceRequest.class), any());
+        verify(proxy, times(0)).injectCredentialsAndInvokeV2(any(UntagResourceRequest.class), any());
+        verify(proxy, times(1)).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+    }
+
+    @Test
+    public void onlyChangedTagsAreApplied() {
+        request.setDesiredResourceState(ResourceModel.builder().tags(ImmutableList.of(
+                Tag.builder().key("same").value("value").build(),
+                Tag.builder().key("changed").value("new").build())).build());
+        request.setPreviousResourceState(ResourceModel.builder().tags(ImmutableList.of(
+                Tag.builder().key("same").value("value").build(),
+                Tag.builder().key("changed").value("old").build(),
+                Tag.builder().key("aws:cloudformation:stack-name").value("stack").build())).build());
+        handler.handleRequest(proxy, request, callbackContext, logger);
+
+        ArgumentCaptor<AwsRequest> requestCaptor = forClass(AwsRequest.class);
+        verify(proxy, atLeastOnce()).injectCredentialsAndInvokeV2(requestCaptor.capture(), any());
+        List<TagResourceRequest> tagRequests = requestCaptor.getAllValues().stream()
+                .filter(r -> r instanceof TagResourceRequest)
+                .map(r -> (TagResourceRequest) r)
+                .collect(Collectors.toList());
+        assertThat(tagRequests).hasSize(1);
+        assertThat(tagRequests.get(0).tags()).hasSize(1);
+        assertThat(tagRequests.get(0).tags().get(0).key()).isEqualTo("changed");
+        verify(proxy, times(0)).injectCredentialsAndInvokeV2(any(UntagResourceRequest.class), any());
+    }
+
+    @Test
+    public void updateServerSkippedWhenOnlyTagsChange() {
+        request.setDesiredResourceState(ResourceModel.builder().backupRetentionCount(4).tags(model.getTags()).build());
+        assertStabilizeSuccess(request);
+
+        verify(proxy, times(0)).injectCredentialsAndInvokeV2(any(UpdateServerRequest.class), any());
+    }
+
+    @Test
+    public void updateServerSendsOnlyChangedFields() {
+        request.setDesiredResourceState(ResourceModel.builder()
+                .backupRetentionCount(4)
+                .preferredBackupWindow("Mon:08:00")
+                .preferredMaintenanceWindow("Tue:09:00")
+                .disableAutomatedBackup(true)
+                .build());
+        request.setPreviousResourceState(ResourceModel.builder()
+                .backupRetentionCount(4)
+                .preferredBackupWindow("Mon:08:00")
+                .preferredMaintenanceWindow("Wed:09:00")
+                .disableAutomatedBackup(false)
+                .build());
+        assertStabilizeSuccess(request);
+
+        ArgumentCaptor<AwsRequest> requestCaptor = forClass(AwsRequest.class);
+        verify(proxy, atLeastOnce()).injectCredentialsAndInvokeV2(requestCaptor.capture(), any());
+        List<UpdateServerRequest> updateRequests = requestCaptor.getAllValues().stream()
+                .filter(r -> r instanceof UpdateServerRequest)
+                .map(r -> (UpdateServerRequest) r)
+                .collect(Collectors.toList());
+        assertThat(updateRequests).hasSize(1);
+        assertThat(updateRequests.get(0).preferredMaintenanceWindow()).isEqualTo("Tue:09:00");
+        assertThat(updateRequests.get(0).disableAutomatedBackup()).isTrue();
+        assertThat(updateRequests.get(0).backupRetentionCount()).isNull();
+        assertThat(updateRequests.get(0).preferredBackupWindow()).isNull();
+    }
+
+    @Test
+    public void updateServerResponseIsUsedAsSuccessModel() {
+        doReturn(UpdateServerResponse.builder().server(Server.builder()
+                .serverName(SERVER_NAME)
+                .status("HEALTHY")
+                .endpoint(ENDPOINT)
+                .serverArn(SERVER_ARN)
+                .build()).build())
+                .when(proxy).injectCredentialsAndInvokeV2(any(UpdateServerRequest.class), any());
+
+        ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, callbackContext, logger);
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel().getEndpoint()).isEqualTo(ENDPOINT);
+        assertThat(response.getResourceModel().getArn()).isEqualTo(SERVER_ARN);
+        verify(proxy, times(1)).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        verify(proxy, times(1)).injectCredentialsAndInvokeV2(any(UpdateServerRequest.class), any());
+    }
+
+    @Test
+    public void tagPhaseUsesServerArnFromCallbackContext() {
+        callbackContext.setServerArn(SERVER_ARN);
+        handler.handleRequest(proxy, request, callbackContext, logger);
+
+        verify(proxy, times(1)).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        ArgumentCaptor<AwsRequest> requestCaptor = forClass(AwsRequest.class);
+        verify(proxy, atLeastOnce()).injectCredentialsAndInvokeV2(requestCaptor.capture(), any());
+        requestCaptor.getAllValues().stream()
+                .filter(r -> r instanceof TagResourceRequest)
+                .forEach(r -> assertThat(((TagResourceRequest) r).resourceArn()).isEqualTo(SERVER_ARN));
+    }
+
+    @Test
+    public void tagPhaseUsesServerArnFromPreviousModel() {
+        oldModel.setArn(SERVER_ARN);
+        handler.handleRequest(proxy, request, callbackContext, logger);
+
+        verify(proxy, times(1)).injectCredentialsAndInvokeV2(any(DescribeServersRequest.class), any());
+        ArgumentCaptor<AwsRequest> requestCaptor = forClass(AwsRequest.class);
+        verify(proxy, atLeastOnce()).injectCredentialsAndInvokeV2(requestCaptor.capture(), any());
+        requestCaptor.getAllValues().stream()
+                .filter(r -> r instanceof TagResourceRequest)
+                .forEach(r -> assertThat(((TagResourceRequest) r).resourceArn()).isEqualTo(SERVER_ARN));
+    }
+
+    private ProgressEvent<ResourceModel, CallbackContext> assertStabilizeSuccess(ResourceHandlerRequest<ResourceModel> request) {
+        ProgressEvent<ResourceModel, CallbackContext> response;
+
+        response = handler.handleRequest(proxy, request, callbackContext, logger);
         assertThat(response).isNotNull();
         assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
         assertThat(response.getResourceModel().getEndpoint()).isEqualTo(ENDPOINT);
@@ -0,0 +1,180 @@
+package software.amazon.opsworkscm.server.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final int SERVICE_CAPACITY = 4;
+    private static final int ITEM_COUNT = 300;
+
+    private final AtomicLong now = new AtomicLong();
+    private final List<Long> sleeps = new ArrayList<>();
+
+    @Test
+    public void testFanOutAdaptsToThrottlingService() {
+        ThrottlingService service = new ThrottlingService(SERVICE_CAPACITY);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 32, e -> e instanceof ThrottledException);
+        List<Integer> items = IntStream.range(0, ITEM_COUNT).boxed().collect(Collectors.toList());
+
+        List<Integer> results = ParallelFanOut.map(items, service::call, limiter);
+
+        assertThat(results).containsExactlyElementsOf(items);
+        assertThat(limiter.getThrottleCount())
+                .as("throttled %d of %d calls", limiter.getThrottleCount(), ITEM_COUNT)
+                .isLessThan(ITEM_COUNT / 5);
+        assertThat(limiter.getLimit()).isLessThanOrEqualTo(2 * SERVICE_CAPACITY);
+    }
+
+    @Test
+    public void testFixedConcurrencyAboveCapacityFails() {
+        ThrottlingService service = new ThrottlingService(SERVICE_CAPACITY);
+        List<Integer> items = IntStream.range(0, ITEM_COUNT).boxed().collect(Collectors.toList());
+
+        assertThatThrownBy(() -> ParallelFanOut.map(items, service::call, 32)).isInstanceOf(ThrottledException.class);
+    }
+
+    @Test
+    public void testThrottledCallHalvesLimitAndIsRetried() {
+        AdaptiveConcurrencyLimiter limiter = fakeTimeLimiter(8);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = limiter.call(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new ThrottledException();
+            }
+            return "tags";
+        });
+
+        assertThat(result).isEqualTo("tags");
+        assertThat(attempts.get()).isEqualTo(2);
+        assertThat(limiter.getThrottleCount()).isEqualTo(1);
+        assertThat(limiter.getLimit()).isEqualTo(4);
+        assertThat(sleeps).hasSize(1);
+        assertThat(sleeps.get(0)).isBetween(0L, AdaptiveConcurrencyLimiter.RETRY_BASE_DELAY_MILLIS);
+    }
+
+    @Test
+    public void testGivesUpAfterMaxAttempts() {
+        AdaptiveConcurrencyLimiter limiter = fakeTimeLimiter(8);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> limiter.call(() -> {
+            attempts.incrementAndGet();
+            throw new ThrottledException();
+        })).isInstanceOf(ThrottledException.class);
+
+        assertThat(attempts.get()).isEqualTo(AdaptiveConcurrencyLimiter.MAX_ATTEMPTS);
+        assertThat(limiter.getLimit()).isEqualTo(1);
+        assertThat(sleeps).hasSize(AdaptiveConcurrencyLimiter.MAX_ATTEMPTS - 1);
+    }
+
+    @Test
+    public void testOtherFailuresPropagateWithoutLoweringLimit() {
+        AdaptiveConcurrencyLimiter limiter = fakeTimeLimiter(8);
+        IllegalArgumentException failure = new IllegalArgumentException("bad arn");
+
+        assertThatThrownBy(() -> limiter.call(() -> {
+            throw failure;
+        })).isSameAs(failure);
+
+        assertThat(limiter.getLimit()).isEqualTo(8);
+        assertThat(limiter.call(() -> "still usable")).isEqualTo("still usable");
+    }
+
+    @Test
+    public void testErrorReleasesTheSlot() {
+        AdaptiveConcurrencyLimiter limiter = fakeTimeLimiter(1);
+        Error failure = new StackOverflowError();
+
+        assertThatThrownBy(() -> limiter.call(() -> {
+            throw failure;
+        })).isSameAs(failure);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertThat(limiter.call(() -> "still usable")).isEqualTo("still usable"));
+    }
+
+    @Test
+    public void testSlowCallsLowerTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = fakeTimeLimiter(4);
+        for (int i = 0; i < 5; i++) {
+            callTaking(limiter, 10);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(5);
+
+        for (int i = 0; i < 3; i++) {
+            callTaking(limiter, 50);
+        }
+
+        assertThat(limiter.getLimit()).isLessThan(4);
+    }
+
+    @Test
+    public void testReportedCallLatencyIsUsedInsteadOfElapsedTime() {
+        AtomicLong serviceLatency = new AtomicLong(10);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 32, e -> e instanceof ThrottledException,
+                serviceLatency::get, now::get, sleeps::add);
+        for (int i = 0; i < 5; i++) {
+            callTaking(limiter, 10);
+        }
+
+        // Rate limit waits make the calls slow end to end, the service itself answers as fast as before
+        for (int i = 0; i < 3; i++) {
+            callTaking(limiter, 500);
+        }
+
+        assertThat(limiter.getLimit()).isGreaterThanOrEqualTo(5);
+    }
+
+    private AdaptiveConcurrencyLimiter fakeTimeLimiter(final int initialLimit) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, 1, 32, e -> e instanceof ThrottledException, null, now::get, sleeps::add);
+    }
+
+    private void callTaking(final AdaptiveConcurrencyLimiter limiter, final long latencyNanos) {
+        limiter.call(() -> now.addAndGet(latencyNanos));
+    }
+
+    private static class ThrottledException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Serves a fixed number of concurrent calls and throttles the rest.
+     */
+    private static class ThrottlingService {
+        private final int capacity;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        ThrottlingService(final int capacity) {
+            this.capacity = capacity;
+        }
+
+        Integer call(final Integer item) {
+            final int current = inFlight.incrementAndGet();
+            try {
+                if (current > capacity) {
+                    throw new ThrottledException();
+                }
+                Thread.sleep(5);
+                return item;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
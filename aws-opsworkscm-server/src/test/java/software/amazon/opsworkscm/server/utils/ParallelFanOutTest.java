@@ -0,0 +1,114 @@
+package software.amazon.opsworkscm.server.utils;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ParallelFanOutTest {
+
+    private static final int ITEM_COUNT = 20;
+    private static final int CONCURRENCY = 5;
+    private static final long INJECTED_LATENCY_MILLIS = 50L;
+
+    private final List<Integer> items = IntStream.range(0, ITEM_COUNT).boxed().collect(Collectors.toList());
+
+    @Test
+    public void testResultsKeepInputOrder() {
+        List<String> results = ParallelFanOut.map(items, withLatency(i -> "server-" + i), CONCURRENCY);
+
+        assertThat(results).containsExactlyElementsOf(items.stream().map(i -> "server-" + i).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testConcurrencyIsBounded() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        ParallelFanOut.map(items, withLatency(i -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return i;
+        }, inFlight), CONCURRENCY);
+
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(CONCURRENCY);
+    }
+
+    @Test
+    public void testFailurePropagates() {
+        IllegalArgumentException failure = new IllegalArgumentException("tags for server-7 failed");
+
+        assertThatThrownBy(() -> ParallelFanOut.map(items, i -> {
+            if (i == 7) {
+                throw failure;
+            }
+            return i;
+        }, CONCURRENCY)).isSameAs(failure);
+    }
+
+    @Test
+    public void testTasksRunConcurrentlyUpToTheLimit() {
+        CyclicBarrier barrier = new CyclicBarrier(CONCURRENCY);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        ParallelFanOut.map(items, i -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                // Only trips once CONCURRENCY tasks are waiting at the same time
+                barrier.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+                throw new IllegalStateException("Fewer than " + CONCURRENCY + " tasks ran at once", e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return i;
+        }, CONCURRENCY);
+
+        assertThat(maxInFlight.get()).isEqualTo(CONCURRENCY);
+    }
+
+    @Test
+    @Disabled("Benchmark, run by hand")
+    public void benchmarkParallelAgainstSequentialUnderLatency() {
+        long start = System.nanoTime();
+        ParallelFanOut.map(items, withLatency(i -> i), 1);
+        final long sequentialMillis = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        ParallelFanOut.map(items, withLatency(i -> i), CONCURRENCY);
+        final long parallelMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("%d calls with %d ms latency: sequential %d ms, parallel %d ms%n",
+                ITEM_COUNT, INJECTED_LATENCY_MILLIS, sequentialMillis, parallelMillis);
+    }
+
+    private static <R> Function<Integer, R> withLatency(final Function<Integer, R> task) {
+        return withLatency(task, null);
+    }
+
+    private static <R> Function<Integer, R> withLatency(final Function<Integer, R> task, final AtomicInteger inFlight) {
+        return item -> {
+            final R result = task.apply(item);
+            try {
+                Thread.sleep(INJECTED_LATENCY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (inFlight != null) {
+                inFlight.decrementAndGet();
+            }
+            return result;
+        };
+    }
+}
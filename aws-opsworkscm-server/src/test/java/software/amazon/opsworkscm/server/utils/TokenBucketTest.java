@@ -0,0 +1,104 @@
+package software.amazon.opsworkscm.server.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenBucketTest {
+
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong(1_000_000 * MILLI);
+
+    @Test
+    public void testBurstIsFreeThenCallsArePaced() {
+        TokenBucket bucket = new TokenBucket(10, 3, now::get);
+
+        List<Long> waits = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            waits.add(bucket.reserve() / MILLI);
+        }
+
+        assertThat(waits).containsExactly(0L, 0L, 0L, 100L, 200L, 300L);
+    }
+
+    @Test
+    public void testTokensRefillOverTime() {
+        TokenBucket bucket = new TokenBucket(10, 2, now::get);
+        bucket.reserve();
+        bucket.reserve();
+        assertThat(bucket.reserve()).isEqualTo(100 * MILLI);
+
+        now.addAndGet(1_000 * MILLI);
+
+        assertThat(bucket.reserve()).isZero();
+        assertThat(bucket.reserve()).isZero();
+        assertThat(bucket.reserve()).isEqualTo(100 * MILLI);
+    }
+
+    @Test
+    public void testTooLongWaitLeavesTheBucketAlone() {
+        TokenBucket bucket = new TokenBucket(10, 1, now::get);
+        bucket.reserve();
+
+        assertThat(bucket.tryReserve(50 * MILLI)).isEqualTo(100 * MILLI);
+        assertThat(bucket.tryReserve(50 * MILLI)).isEqualTo(100 * MILLI);
+        assertThat(bucket.getStats().getAcquisitions()).isEqualTo(1);
+
+        assertThat(bucket.reserve()).isEqualTo(100 * MILLI);
+    }
+
+    @Test
+    public void testWaitMetrics() {
+        TokenBucket bucket = new TokenBucket(5, 1, now::get);
+        for (int i = 0; i < 4; i++) {
+            bucket.reserve();
+        }
+
+        TokenBucket.Stats stats = bucket.getStats();
+        assertThat(stats.getAcquisitions()).isEqualTo(4);
+        assertThat(stats.getDelayedAcquisitions()).isEqualTo(3);
+        assertThat(stats.getTotalWaitMillis()).isEqualTo(200 + 400 + 600);
+        assertThat(stats.getMaxWaitMillis()).isEqualTo(600);
+    }
+
+    @Test
+    public void testConcurrentCallersGetDistinctSlots() throws InterruptedException {
+        final int threads = 8;
+        final int callsPerThread = 500;
+        final TokenBucket bucket = new TokenBucket(1_000, 1, now::get);
+        final ConcurrentLinkedQueue<Long> waits = new ConcurrentLinkedQueue<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < callsPerThread; i++) {
+                    waits.add(bucket.reserve());
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertThat(waits).hasSize(threads * callsPerThread);
+        assertThat(waits).doesNotHaveDuplicates();
+        assertThat(waits.stream().mapToLong(Long::longValue).max().getAsLong())
+                .isEqualTo((threads * callsPerThread - 1) * MILLI);
+    }
+}